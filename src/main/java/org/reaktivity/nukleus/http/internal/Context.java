@@ -16,6 +16,12 @@
 package org.reaktivity.nukleus.http.internal;
 
 import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.logging.Level.SEVERE;
+import static org.agrona.BitUtil.align;
+import static org.agrona.BitUtil.findNextPositivePowerOfTwo;
 import static org.agrona.CloseHelper.quietClose;
 import static org.agrona.LangUtil.rethrowUnchecked;
 
@@ -26,26 +32,116 @@ import java.nio.file.Path;
 import java.nio.file.WatchService;
 import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
 
 import org.agrona.ErrorHandler;
 import org.agrona.concurrent.AtomicBuffer;
+import org.agrona.concurrent.BackoffIdleStrategy;
 import org.agrona.concurrent.IdleStrategy;
+import org.agrona.concurrent.NanoClock;
+import org.agrona.concurrent.SystemNanoClock;
 import org.agrona.concurrent.broadcast.BroadcastTransmitter;
 import org.agrona.concurrent.ringbuffer.ManyToOneRingBuffer;
 import org.agrona.concurrent.ringbuffer.RingBuffer;
 import org.agrona.concurrent.status.CountersManager;
 import org.reaktivity.nukleus.Configuration;
 import org.reaktivity.nukleus.http.internal.layouts.ControlLayout;
+import org.reaktivity.nukleus.http.internal.layouts.TraceLayout;
+import org.reaktivity.nukleus.http.internal.routable.TargetLayouts;
+import org.reaktivity.nukleus.http.internal.util.AdaptiveIdleStrategy;
+import org.reaktivity.nukleus.http.internal.util.DutyCycle;
+import org.reaktivity.nukleus.http.internal.util.Histogram;
 
 public final class Context implements Closeable
 {
+    public static final String WORKER_COUNT_PROPERTY_NAME = "nuklei.http.worker.count";
+
+    public static final int WORKER_COUNT_DEFAULT = 1;
+
+    public static final String SOURCE_READ_BUDGET_PROPERTY_NAME = "nuklei.http.source.read.budget";
+
+    public static final int SOURCE_READ_BUDGET_DEFAULT = 64;
+
+    public static final String TARGET_READ_BUDGET_PROPERTY_NAME = "nuklei.http.target.read.budget";
+
+    public static final int TARGET_READ_BUDGET_DEFAULT = 256;
+
+    public static final String OVERFLOW_CAPACITY_PROPERTY_NAME = "nuklei.http.overflow.capacity";
+
+    public static final int OVERFLOW_CAPACITY_DEFAULT = 64 * 1024;
+
+    public static final String WINDOW_THRESHOLD_PROPERTY_NAME = "nuklei.http.window.threshold";
+
+    public static final int WINDOW_THRESHOLD_DEFAULT = 8192;
+
+    public static final String TARGET_BATCHING_PROPERTY_NAME = "nuklei.http.target.batching";
+
+    public static final String LAYOUT_PRETOUCH_PROPERTY_NAME = "nuklei.http.layout.pretouch";
+
+    public static final String LAYOUT_BACKGROUND_PROPERTY_NAME = "nuklei.http.layout.background";
+
+    public static final String IDLE_STRATEGY_PROPERTY_NAME = "nuklei.http.idle.strategy";
+
+    public static final String IDLE_STRATEGY_DEFAULT = "backoff";
+
+    public static final String WATCHER_INTERVAL_PROPERTY_NAME = "nuklei.http.watcher.interval";
+
+    public static final long WATCHER_INTERVAL_DEFAULT = 10L;
+
+    public static final String ROUTE_SNAPSHOT_PROPERTY_NAME = "nuklei.http.route.snapshot";
+
+    public static final String ROUTE_SNAPSHOT_INTERVAL_PROPERTY_NAME = "nuklei.http.route.snapshot.interval";
+
+    public static final long ROUTE_SNAPSHOT_INTERVAL_DEFAULT = 100L;
+
+    public static final String COMMAND_TIMEOUT_PROPERTY_NAME = "nuklei.http.command.timeout";
+
+    public static final long COMMAND_TIMEOUT_DEFAULT = 0L;
+
+    public static final String STALL_THRESHOLD_PROPERTY_NAME = "nuklei.http.stall.threshold";
+
+    public static final long STALL_THRESHOLD_DEFAULT = 1000L;
+
+    public static final String TRACE_CAPACITY_PROPERTY_NAME = "nuklei.http.trace.capacity";
+
+    public static final int TRACE_CAPACITY_DEFAULT = 0;
+
+    public static final String ROUTE_COUNTERS_PROPERTY_NAME = "nuklei.http.route.counters";
+
+    public static final String HISTOGRAM_SUB_BUCKET_BITS_PROPERTY_NAME = "nuklei.http.histogram.sub.bucket.bits";
+
+    public static final int HISTOGRAM_SUB_BUCKET_BITS_DEFAULT = 3;
+
+    public static final String PROFILE_SAMPLE_INTERVAL_PROPERTY_NAME = "nuklei.http.profile.sample.interval";
+
+    public static final int PROFILE_SAMPLE_INTERVAL_DEFAULT = 0;
+
     private final ControlLayout.Builder controlRW = new ControlLayout.Builder();
 
     private boolean readonly;
     private Path configDirectory;
     private ControlLayout controlRO;
+    private TraceLayout traceRO;
     private int maximumStreamsCount;
+    private int workerCount;
+    private int sourceReadBudget;
+    private int targetReadBudget;
+    private int overflowCapacity;
+    private int windowThreshold;
+    private boolean targetBatching;
+    private boolean pretouchLayouts;
+    private TargetLayouts targetLayouts;
+    private Supplier<IdleStrategy> supplyIdleStrategy;
+    private NanoClock nanoClock;
+    private long watcherIntervalNanos;
+    private Path routeSnapshotPath;
+    private long routeSnapshotIntervalMillis;
+    private long commandTimeoutNanos;
+    private long stallThresholdNanos;
+    private boolean routeCounters;
+    private int histogramSubBucketBits;
+    private int profileSampleMask;
     private int streamsBufferCapacity;
     private int throttleBufferCapacity;
     private Function<String, Path> sourceStreamsPath;
@@ -81,6 +177,86 @@ public final class Context implements Closeable
         return maximumStreamsCount;
     }
 
+    public int workerCount()
+    {
+        return workerCount;
+    }
+
+    public int sourceReadBudget()
+    {
+        return sourceReadBudget;
+    }
+
+    public int targetReadBudget()
+    {
+        return targetReadBudget;
+    }
+
+    public int overflowCapacity()
+    {
+        return overflowCapacity;
+    }
+
+    public int windowThreshold()
+    {
+        return windowThreshold;
+    }
+
+    public boolean targetBatching()
+    {
+        return targetBatching;
+    }
+
+    public boolean pretouchLayouts()
+    {
+        return pretouchLayouts;
+    }
+
+    public TargetLayouts targetLayouts()
+    {
+        return targetLayouts;
+    }
+
+    public Path routeSnapshotPath()
+    {
+        return routeSnapshotPath;
+    }
+
+    public long routeSnapshotIntervalMillis()
+    {
+        return routeSnapshotIntervalMillis;
+    }
+
+    public long commandTimeoutNanos()
+    {
+        return commandTimeoutNanos;
+    }
+
+    public long stallThresholdNanos()
+    {
+        return stallThresholdNanos;
+    }
+
+    public boolean routeCounters()
+    {
+        return routeCounters;
+    }
+
+    public int histogramSubBucketBits()
+    {
+        return histogramSubBucketBits;
+    }
+
+    public int profileSampleMask()
+    {
+        return profileSampleMask;
+    }
+
+    public TraceLayout traceLayout()
+    {
+        return traceRO;
+    }
+
     public int streamsBufferCapacity()
     {
         return streamsBufferCapacity;
@@ -169,6 +345,34 @@ public final class Context implements Closeable
         return this;
     }
 
+    public Context nanoClock(
+        NanoClock nanoClock)
+    {
+        this.nanoClock = nanoClock;
+        return this;
+    }
+
+    public NanoClock nanoClock()
+    {
+        return nanoClock;
+    }
+
+    public long watcherIntervalNanos()
+    {
+        return watcherIntervalNanos;
+    }
+
+    public IdleStrategy supplyIdleStrategy()
+    {
+        return supplyIdleStrategy.get();
+    }
+
+    public DutyCycle newDutyCycle()
+    {
+        return new DutyCycle(counters.busyCycles(), counters.idleCycles(), counters.busyNanos(), counters.idleNanos(),
+                             nanoClock);
+    }
+
     public ErrorHandler errorHandler()
     {
         return errorHandler;
@@ -255,6 +459,50 @@ public final class Context implements Closeable
 
             this.maximumStreamsCount = config.maximumStreamsCount();
 
+            this.workerCount = Math.max(Integer.getInteger(WORKER_COUNT_PROPERTY_NAME, WORKER_COUNT_DEFAULT), 1);
+
+            this.sourceReadBudget = Math.max(Integer.getInteger(SOURCE_READ_BUDGET_PROPERTY_NAME, SOURCE_READ_BUDGET_DEFAULT), 1);
+
+            this.targetReadBudget = Math.max(Integer.getInteger(TARGET_READ_BUDGET_PROPERTY_NAME, TARGET_READ_BUDGET_DEFAULT), 1);
+
+            this.overflowCapacity = align(Integer.getInteger(OVERFLOW_CAPACITY_PROPERTY_NAME, OVERFLOW_CAPACITY_DEFAULT), 8);
+
+            this.windowThreshold = Integer.getInteger(WINDOW_THRESHOLD_PROPERTY_NAME, WINDOW_THRESHOLD_DEFAULT);
+
+            this.targetBatching = Boolean.getBoolean(TARGET_BATCHING_PROPERTY_NAME);
+
+            this.pretouchLayouts = Boolean.getBoolean(LAYOUT_PRETOUCH_PROPERTY_NAME);
+
+            final String idleStrategyName = System.getProperty(IDLE_STRATEGY_PROPERTY_NAME, IDLE_STRATEGY_DEFAULT);
+            this.supplyIdleStrategy = idleStrategySupplier(idleStrategyName);
+
+            final long watcherInterval = Long.getLong(WATCHER_INTERVAL_PROPERTY_NAME, WATCHER_INTERVAL_DEFAULT);
+            this.watcherIntervalNanos = MILLISECONDS.toNanos(watcherInterval);
+
+            this.routeSnapshotIntervalMillis =
+                    Math.max(Long.getLong(ROUTE_SNAPSHOT_INTERVAL_PROPERTY_NAME, ROUTE_SNAPSHOT_INTERVAL_DEFAULT), 0L);
+
+            final long commandTimeout = Long.getLong(COMMAND_TIMEOUT_PROPERTY_NAME, COMMAND_TIMEOUT_DEFAULT);
+            this.commandTimeoutNanos = MILLISECONDS.toNanos(commandTimeout);
+
+            final long stallThreshold = Long.getLong(STALL_THRESHOLD_PROPERTY_NAME, STALL_THRESHOLD_DEFAULT);
+            this.stallThresholdNanos = MILLISECONDS.toNanos(stallThreshold);
+
+            this.routeCounters = Boolean.getBoolean(ROUTE_COUNTERS_PROPERTY_NAME);
+
+            final int histogramSubBucketBits =
+                    Integer.getInteger(HISTOGRAM_SUB_BUCKET_BITS_PROPERTY_NAME, HISTOGRAM_SUB_BUCKET_BITS_DEFAULT);
+            this.histogramSubBucketBits = Math.min(Math.max(histogramSubBucketBits, 0), Histogram.MAX_SUB_BUCKET_BITS);
+
+            final int profileSampleInterval =
+                    Integer.getInteger(PROFILE_SAMPLE_INTERVAL_PROPERTY_NAME, PROFILE_SAMPLE_INTERVAL_DEFAULT);
+            this.profileSampleMask = profileSampleInterval > 1 ? findNextPositivePowerOfTwo(profileSampleInterval) - 1 : 0;
+
+            if (nanoClock == null)
+            {
+                nanoClock(new SystemNanoClock());
+            }
+
             this.streamsBufferCapacity = config.streamsBufferCapacity();
 
             this.throttleBufferCapacity = config.throttleBufferCapacity();
@@ -269,6 +517,13 @@ public final class Context implements Closeable
 
             targetStreamsPath((source, target) -> configDirectory.resolve(format("%s/streams/http#%s", target, source)));
 
+            if (Boolean.getBoolean(ROUTE_SNAPSHOT_PROPERTY_NAME))
+            {
+                this.routeSnapshotPath = configDirectory.resolve("http/routes");
+            }
+
+            this.targetLayouts = new TargetLayouts(this, Boolean.getBoolean(LAYOUT_BACKGROUND_PROPERTY_NAME));
+
             this.controlRO = controlRW.controlPath(config.directory().resolve("http/control"))
                                       .commandBufferCapacity(config.commandBufferCapacity())
                                       .responseBufferCapacity(config.responseBufferCapacity())
@@ -277,6 +532,14 @@ public final class Context implements Closeable
                                       .readonly(readonly())
                                       .build();
 
+            final int traceCapacity = Integer.getInteger(TRACE_CAPACITY_PROPERTY_NAME, TRACE_CAPACITY_DEFAULT);
+            if (traceCapacity != 0 && !readonly())
+            {
+                this.traceRO = new TraceLayout.Builder().path(configDirectory.resolve("http/trace"))
+                                                        .capacity(traceCapacity)
+                                                        .build();
+            }
+
             conductorCommands(new ManyToOneRingBuffer(controlRO.commandBuffer()));
 
             conductorResponseBuffer(controlRO.responseBuffer());
@@ -284,6 +547,11 @@ public final class Context implements Closeable
             conductorResponses(new BroadcastTransmitter(conductorResponseBuffer()));
 
             concludeCounters();
+
+            if (errorHandler == null)
+            {
+                errorHandler(ex -> logger().log(SEVERE, "unexpected error", ex));
+            }
         }
         catch (Exception ex)
         {
@@ -296,8 +564,24 @@ public final class Context implements Closeable
     @Override
     public void close() throws IOException
     {
+        quietClose(targetLayouts);
         quietClose(watchService);
         quietClose(controlRO);
+        quietClose(traceRO);
+    }
+
+    private static Supplier<IdleStrategy> idleStrategySupplier(
+        String name)
+    {
+        switch (name)
+        {
+        case "adaptive":
+            return () -> new AdaptiveIdleStrategy(256, 64, MICROSECONDS.toNanos(1L), MILLISECONDS.toNanos(1L));
+        case "backoff":
+            return () -> new BackoffIdleStrategy(64, 64, NANOSECONDS.toNanos(64L), MICROSECONDS.toNanos(64L));
+        default:
+            throw new IllegalArgumentException(format("unknown idle strategy \"%s\"", name));
+        }
     }
 
     private void concludeCounters()
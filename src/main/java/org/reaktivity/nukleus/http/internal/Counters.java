@@ -15,18 +15,42 @@
  */
 package org.reaktivity.nukleus.http.internal;
 
+import static org.agrona.concurrent.status.CountersReader.MAX_LABEL_LENGTH;
+
 import org.agrona.concurrent.status.AtomicCounter;
 import org.agrona.concurrent.status.CountersManager;
 
 public final class Counters implements AutoCloseable
 {
+    private final CountersManager countersManager;
     private final AtomicCounter routesSourced;
     private final AtomicCounter streamsSourced;
+    private final AtomicCounter streamsReserved;
+    private final AtomicCounter framesRead;
+    private final AtomicCounter readsPreempted;
+    private final AtomicCounter framesSpilled;
+    private final AtomicCounter framesDropped;
+    private final AtomicCounter busyCycles;
+    private final AtomicCounter idleCycles;
+    private final AtomicCounter busyNanos;
+    private final AtomicCounter idleNanos;
+    private final AtomicCounter streamsPinned;
 
     Counters(CountersManager countersManager)
     {
+        this.countersManager = countersManager;
         routesSourced = countersManager.newCounter("routesSourced");
         streamsSourced = countersManager.newCounter("streamsSourced");
+        streamsReserved = countersManager.newCounter("streamsReserved");
+        framesRead = countersManager.newCounter("framesRead");
+        readsPreempted = countersManager.newCounter("readsPreempted");
+        framesSpilled = countersManager.newCounter("framesSpilled");
+        framesDropped = countersManager.newCounter("framesDropped");
+        busyCycles = countersManager.newCounter("busyCycles");
+        idleCycles = countersManager.newCounter("idleCycles");
+        busyNanos = countersManager.newCounter("busyNanos");
+        idleNanos = countersManager.newCounter("idleNanos");
+        streamsPinned = countersManager.newCounter("streamsPinned");
     }
 
     @Override
@@ -34,6 +58,58 @@ public final class Counters implements AutoCloseable
     {
         routesSourced.close();
         streamsSourced.close();
+        streamsReserved.close();
+        framesRead.close();
+        readsPreempted.close();
+        framesSpilled.close();
+        framesDropped.close();
+        busyCycles.close();
+        idleCycles.close();
+        busyNanos.close();
+        idleNanos.close();
+        streamsPinned.close();
+    }
+
+    /**
+     * Allocates one counter per suffix, labelled {@code <label>.<suffix>} with the label truncated to keep the suffix.
+     *
+     * @return the allocated counters, or {@code null} without allocating any if the counters buffer is full
+     */
+    public synchronized AtomicCounter[] newCounters(
+        String label,
+        String... suffixes)
+    {
+        final AtomicCounter[] allocated = new AtomicCounter[suffixes.length];
+
+        try
+        {
+            for (int i = 0; i < suffixes.length; i++)
+            {
+                final String suffix = "." + suffixes[i];
+                final int maxLength = MAX_LABEL_LENGTH - suffix.length();
+                final String prefix = label.length() > maxLength ? label.substring(0, maxLength) : label;
+                allocated[i] = countersManager.newCounter(prefix + suffix);
+            }
+
+            return allocated;
+        }
+        catch (IllegalArgumentException | IllegalStateException ex)
+        {
+            freeCounters(allocated);
+            return null;
+        }
+    }
+
+    public synchronized void freeCounters(
+        AtomicCounter... counters)
+    {
+        for (AtomicCounter counter : counters)
+        {
+            if (counter != null && !counter.isClosed())
+            {
+                counter.close();
+            }
+        }
     }
 
     public AtomicCounter routesSourced()
@@ -45,4 +121,54 @@ public final class Counters implements AutoCloseable
     {
         return streamsSourced;
     }
+
+    public AtomicCounter streamsReserved()
+    {
+        return streamsReserved;
+    }
+
+    public AtomicCounter framesRead()
+    {
+        return framesRead;
+    }
+
+    public AtomicCounter readsPreempted()
+    {
+        return readsPreempted;
+    }
+
+    public AtomicCounter framesSpilled()
+    {
+        return framesSpilled;
+    }
+
+    public AtomicCounter framesDropped()
+    {
+        return framesDropped;
+    }
+
+    public AtomicCounter busyCycles()
+    {
+        return busyCycles;
+    }
+
+    public AtomicCounter idleCycles()
+    {
+        return idleCycles;
+    }
+
+    public AtomicCounter busyNanos()
+    {
+        return busyNanos;
+    }
+
+    public AtomicCounter idleNanos()
+    {
+        return idleNanos;
+    }
+
+    public AtomicCounter streamsPinned()
+    {
+        return streamsPinned;
+    }
 }
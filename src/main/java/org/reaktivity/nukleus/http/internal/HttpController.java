@@ -19,18 +19,28 @@ import static java.nio.ByteBuffer.allocateDirect;
 import static java.nio.ByteOrder.nativeOrder;
 
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.Consumer;
 
 import org.agrona.DirectBuffer;
-import org.agrona.collections.Long2ObjectHashMap;
 import org.agrona.concurrent.AtomicBuffer;
+import org.agrona.concurrent.NanoClock;
 import org.agrona.concurrent.UnsafeBuffer;
 import org.agrona.concurrent.broadcast.BroadcastReceiver;
 import org.agrona.concurrent.broadcast.CopyBroadcastReceiver;
 import org.agrona.concurrent.ringbuffer.RingBuffer;
 import org.reaktivity.nukleus.Controller;
+import org.reaktivity.nukleus.http.internal.conductor.RoutesFW;
+import org.reaktivity.nukleus.http.internal.conductor.StreamsFW;
+import org.reaktivity.nukleus.http.internal.conductor.StreamsPageFW;
+import org.reaktivity.nukleus.http.internal.routable.StreamEntry;
 import org.reaktivity.nukleus.http.internal.types.OctetsFW;
 import org.reaktivity.nukleus.http.internal.types.control.ErrorFW;
 import org.reaktivity.nukleus.http.internal.types.control.HttpRouteExFW;
@@ -45,29 +55,33 @@ public final class HttpController implements Controller
 {
     private static final int MAX_SEND_LENGTH = 1024; // TODO: Configuration and Context
 
-    // TODO: thread-safe flyweights or command queue from public methods
-    private final RouteFW.Builder routeRW = new RouteFW.Builder();
-    private final UnrouteFW.Builder unrouteRW = new UnrouteFW.Builder();
-
-    private final HttpRouteExFW.Builder routeExRW = new HttpRouteExFW.Builder();
-
     private final ErrorFW errorRO = new ErrorFW();
     private final RoutedFW routedRO = new RoutedFW();
     private final UnroutedFW unroutedRO = new UnroutedFW();
+    private final StreamsPageFW streamsPageRO = new StreamsPageFW();
 
     private final Context context;
     private final RingBuffer conductorCommands;
     private final CopyBroadcastReceiver conductorResponses;
-    private final AtomicBuffer atomicBuffer;
-    private final Long2ObjectHashMap<CompletableFuture<?>> promisesByCorrelationId;
+    private final ThreadLocal<Encoder> encoders;
+    private final ConcurrentMap<Long, CompletableFuture<?>> promisesByCorrelationId;
+    private final Queue<CommandDeadline> deadlines;
+    private final ConcurrentMap<Long, List<StreamEntry>> streamsByCorrelationId;
+    private final NanoClock nanoClock;
+    private final long commandTimeoutNanos;
 
     public HttpController(Context context)
     {
         this.context = context;
         this.conductorCommands = context.conductorCommands();
-        this.conductorResponses = new CopyBroadcastReceiver(new BroadcastReceiver(context.conductorResponseBuffer()));
-        this.atomicBuffer = new UnsafeBuffer(allocateDirect(MAX_SEND_LENGTH).order(nativeOrder()));
-        this.promisesByCorrelationId = new Long2ObjectHashMap<>();
+        this.conductorResponses = new CopyBroadcastReceiver(new BroadcastReceiver(context.conductorResponseBuffer()),
+                Math.max(context.maxControlResponseLength(), CopyBroadcastReceiver.SCRATCH_BUFFER_LENGTH));
+        this.encoders = ThreadLocal.withInitial(Encoder::new);
+        this.promisesByCorrelationId = new ConcurrentHashMap<>();
+        this.deadlines = new ConcurrentLinkedQueue<>();
+        this.streamsByCorrelationId = new ConcurrentHashMap<>();
+        this.nanoClock = context.nanoClock();
+        this.commandTimeoutNanos = context.commandTimeoutNanos();
     }
 
     @Override
@@ -77,6 +91,11 @@ public final class HttpController implements Controller
 
         weight += conductorResponses.receive(this::handleResponse);
 
+        if (!deadlines.isEmpty())
+        {
+            weight += expireCommands(nanoClock.nanoTime());
+        }
+
         return weight;
     }
 
@@ -109,26 +128,25 @@ public final class HttpController implements Controller
     {
         final CompletableFuture<Long> promise = new CompletableFuture<>();
 
+        final Encoder encoder = encoders.get();
         long correlationId = conductorCommands.nextCorrelationId();
 
-        RouteFW routeRO = routeRW.wrap(atomicBuffer, 0, atomicBuffer.capacity())
-                                 .correlationId(correlationId)
-                                 .role(b -> b.set(role))
-                                 .state(b -> b.set(state))
-                                 .source(source)
-                                 .sourceRef(sourceRef)
-                                 .target(target)
-                                 .targetRef(targetRef)
-                                 .extension(extension(headers))
-                                 .build();
+        RouteFW routeRO = encoder.routeRW.wrap(encoder.buffer, 0, encoder.buffer.capacity())
+                                         .correlationId(correlationId)
+                                         .role(b -> b.set(role))
+                                         .state(b -> b.set(state))
+                                         .source(source)
+                                         .sourceRef(sourceRef)
+                                         .target(target)
+                                         .targetRef(targetRef)
+                                         .extension(encoder.extension(headers))
+                                         .build();
+
+        commandSent(correlationId, promise);
 
         if (!conductorCommands.write(routeRO.typeId(), routeRO.buffer(), routeRO.offset(), routeRO.length()))
         {
-            commandSendFailed(promise);
-        }
-        else
-        {
-            commandSent(correlationId, promise);
+            commandSendFailed(correlationId, promise);
         }
 
         return promise;
@@ -145,26 +163,80 @@ public final class HttpController implements Controller
     {
         final CompletableFuture<Void> promise = new CompletableFuture<>();
 
+        final Encoder encoder = encoders.get();
         long correlationId = conductorCommands.nextCorrelationId();
 
-        UnrouteFW unrouteRO = unrouteRW.wrap(atomicBuffer, 0, atomicBuffer.capacity())
-                                 .correlationId(correlationId)
-                                 .role(b -> b.set(role))
-                                 .state(b -> b.set(state))
-                                 .source(source)
-                                 .sourceRef(sourceRef)
-                                 .target(target)
-                                 .targetRef(targetRef)
-                                 .extension(extension(headers))
-                                 .build();
+        UnrouteFW unrouteRO = encoder.unrouteRW.wrap(encoder.buffer, 0, encoder.buffer.capacity())
+                                         .correlationId(correlationId)
+                                         .role(b -> b.set(role))
+                                         .state(b -> b.set(state))
+                                         .source(source)
+                                         .sourceRef(sourceRef)
+                                         .target(target)
+                                         .targetRef(targetRef)
+                                         .extension(encoder.extension(headers))
+                                         .build();
+
+        commandSent(correlationId, promise);
 
         if (!conductorCommands.write(unrouteRO.typeId(), unrouteRO.buffer(), unrouteRO.offset(), unrouteRO.length()))
         {
-            commandSendFailed(promise);
+            commandSendFailed(correlationId, promise);
         }
-        else
+
+        return promise;
+    }
+
+    public CompletableFuture<Void> routes(
+        Consumer<Routes> entries)
+    {
+        final CompletableFuture<Void> promise = new CompletableFuture<>();
+
+        final Encoder encoder = encoders.get();
+        final AtomicBuffer routesBuffer = encoder.routesBuffer();
+        long correlationId = conductorCommands.nextCorrelationId();
+
+        try
         {
+            encoder.routesRW.wrap(routesBuffer, 0, routesBuffer.capacity())
+                            .correlationId(correlationId);
+
+            entries.accept(new Routes(encoder, correlationId));
+
+            RoutesFW routesRO = encoder.routesRW.build();
+
             commandSent(correlationId, promise);
+
+            if (!conductorCommands.write(routesRO.typeId(), routesRO.buffer(), routesRO.offset(), routesRO.length()))
+            {
+                commandSendFailed(correlationId, promise);
+            }
+        }
+        catch (IndexOutOfBoundsException ex)
+        {
+            commandFailed(promise, "too many route entries");
+        }
+
+        return promise;
+    }
+
+    public CompletableFuture<List<StreamEntry>> describeStreams()
+    {
+        final CompletableFuture<List<StreamEntry>> promise = new CompletableFuture<>();
+
+        final Encoder encoder = encoders.get();
+        long correlationId = conductorCommands.nextCorrelationId();
+
+        StreamsFW streamsRO = encoder.streamsRW.wrap(encoder.buffer, 0, encoder.buffer.capacity())
+                                               .correlationId(correlationId)
+                                               .build();
+
+        streamsByCorrelationId.put(correlationId, new ArrayList<>());
+        commandSent(correlationId, promise);
+
+        if (!conductorCommands.write(streamsRO.typeId(), streamsRO.buffer(), streamsRO.offset(), streamsRO.length()))
+        {
+            commandSendFailed(correlationId, promise);
         }
 
         return promise;
@@ -191,29 +263,6 @@ public final class HttpController implements Controller
         return new HttpStreams(streamsCapacity, throttleCapacity, path, true);
     }
 
-    private Consumer<OctetsFW.Builder> extension(
-        Map<String, String> headers)
-    {
-        if (headers != null)
-        {
-            return e -> e.set((buffer, offset, limit) ->
-                routeExRW.wrap(buffer, offset, limit)
-                         .headers(hs ->
-                         {
-                             headers.forEach((k, v) ->
-                             {
-                                 hs.item(h -> h.name(k).value(v));
-                             });
-                         })
-                         .build()
-                         .length());
-        }
-        else
-        {
-            return b -> {};
-        }
-    }
-
     private int handleResponse(
         int msgTypeId,
         DirectBuffer buffer,
@@ -229,8 +278,12 @@ public final class HttpController implements Controller
             handleRoutedResponse(buffer, index, length);
             break;
         case UnroutedFW.TYPE_ID:
+        case RoutesFW.ROUTED_TYPE_ID:
             handleUnroutedResponse(buffer, index, length);
             break;
+        case StreamsPageFW.TYPE_ID:
+            handleStreamsPageResponse(buffer, index, length);
+            break;
         default:
             break;
         }
@@ -246,7 +299,7 @@ public final class HttpController implements Controller
         errorRO.wrap(buffer, index, length);
         long correlationId = errorRO.correlationId();
 
-        CompletableFuture<?> promise = promisesByCorrelationId.remove(correlationId);
+        CompletableFuture<?> promise = removePromise(correlationId);
         if (promise != null)
         {
             commandFailed(promise, "command failed");
@@ -264,7 +317,7 @@ public final class HttpController implements Controller
         long correlationId = routedRO.correlationId();
         long sourceRef = routedRO.sourceRef();
 
-        CompletableFuture<Long> promise = (CompletableFuture<Long>) promisesByCorrelationId.remove(correlationId);
+        CompletableFuture<Long> promise = (CompletableFuture<Long>) removePromise(correlationId);
         if (promise != null)
         {
             commandSucceeded(promise, sourceRef);
@@ -279,18 +332,91 @@ public final class HttpController implements Controller
         unroutedRO.wrap(buffer, index, length);
         long correlationId = unroutedRO.correlationId();
 
-        CompletableFuture<?> promise = promisesByCorrelationId.remove(correlationId);
+        CompletableFuture<?> promise = removePromise(correlationId);
         if (promise != null)
         {
             commandSucceeded(promise);
         }
     }
 
+    @SuppressWarnings("unchecked")
+    private void handleStreamsPageResponse(
+        DirectBuffer buffer,
+        int index,
+        int length)
+    {
+        streamsPageRO.wrap(buffer, index, index + length);
+        long correlationId = streamsPageRO.correlationId();
+
+        final List<StreamEntry> entries = streamsByCorrelationId.get(correlationId);
+        if (entries != null)
+        {
+            streamsPageRO.forEach(e -> entries.add(new StreamEntry(e.kind().asString(), e.owner().asString(),
+                    e.streamId(), e.target().asString(), e.targetId(), e.window(), e.state().asString())));
+
+            if (streamsPageRO.last())
+            {
+                CompletableFuture<List<StreamEntry>> promise =
+                        (CompletableFuture<List<StreamEntry>>) removePromise(correlationId);
+                if (promise != null)
+                {
+                    commandSucceeded(promise, entries);
+                }
+            }
+        }
+    }
+
+    private int expireCommands(
+        long now)
+    {
+        int expired = 0;
+
+        // deadlines are queued in the order commands are sent, so stop at the first pending one not yet due
+        CommandDeadline deadline;
+        while ((deadline = deadlines.peek()) != null)
+        {
+            final long correlationId = deadline.correlationId;
+
+            if (promisesByCorrelationId.containsKey(correlationId))
+            {
+                if (now - deadline.deadline < 0L)
+                {
+                    break;
+                }
+
+                streamsByCorrelationId.remove(correlationId);
+                CompletableFuture<?> promise = promisesByCorrelationId.remove(correlationId);
+                if (promise != null)
+                {
+                    commandFailed(promise, "command timed out");
+                    expired++;
+                }
+            }
+
+            deadlines.poll();
+        }
+
+        return expired;
+    }
+
+    private CompletableFuture<?> removePromise(
+        final long correlationId)
+    {
+        streamsByCorrelationId.remove(correlationId);
+
+        return promisesByCorrelationId.remove(correlationId);
+    }
+
     private void commandSent(
         final long correlationId,
         final CompletableFuture<?> promise)
     {
         promisesByCorrelationId.put(correlationId, promise);
+
+        if (commandTimeoutNanos != 0L)
+        {
+            deadlines.add(new CommandDeadline(correlationId, nanoClock.nanoTime() + commandTimeoutNanos));
+        }
     }
 
     private <T> boolean commandSucceeded(
@@ -307,8 +433,10 @@ public final class HttpController implements Controller
     }
 
     private boolean commandSendFailed(
+        final long correlationId,
         final CompletableFuture<?> promise)
     {
+        removePromise(correlationId);
         return commandFailed(promise, "unable to offer command");
     }
 
@@ -318,4 +446,119 @@ public final class HttpController implements Controller
     {
         return promise.completeExceptionally(new IllegalStateException(message).fillInStackTrace());
     }
+
+    public final class Routes
+    {
+        private final Encoder encoder;
+        private final long correlationId;
+
+        private Routes(
+            Encoder encoder,
+            long correlationId)
+        {
+            this.encoder = encoder;
+            this.correlationId = correlationId;
+        }
+
+        public Routes route(
+            Role role,
+            State state,
+            String source,
+            long sourceRef,
+            String target,
+            long targetRef,
+            Map<String, String> headers)
+        {
+            encoder.routesRW.route(b -> b.correlationId(correlationId)
+                                         .role(r -> r.set(role))
+                                         .state(s -> s.set(state))
+                                         .source(source)
+                                         .sourceRef(sourceRef)
+                                         .target(target)
+                                         .targetRef(targetRef)
+                                         .extension(encoder.extension(headers)));
+            return this;
+        }
+
+        public Routes unroute(
+            Role role,
+            State state,
+            String source,
+            long sourceRef,
+            String target,
+            long targetRef,
+            Map<String, String> headers)
+        {
+            encoder.routesRW.unroute(b -> b.correlationId(correlationId)
+                                           .role(r -> r.set(role))
+                                           .state(s -> s.set(state))
+                                           .source(source)
+                                           .sourceRef(sourceRef)
+                                           .target(target)
+                                           .targetRef(targetRef)
+                                           .extension(encoder.extension(headers)));
+            return this;
+        }
+    }
+
+    private final class Encoder
+    {
+        private final RouteFW.Builder routeRW = new RouteFW.Builder();
+        private final UnrouteFW.Builder unrouteRW = new UnrouteFW.Builder();
+        private final RoutesFW.Builder routesRW = new RoutesFW.Builder();
+        private final StreamsFW.Builder streamsRW = new StreamsFW.Builder();
+
+        private final HttpRouteExFW.Builder routeExRW = new HttpRouteExFW.Builder();
+
+        private final AtomicBuffer buffer = new UnsafeBuffer(allocateDirect(MAX_SEND_LENGTH).order(nativeOrder()));
+
+        private AtomicBuffer routesBuffer;
+
+        private AtomicBuffer routesBuffer()
+        {
+            if (routesBuffer == null)
+            {
+                routesBuffer = new UnsafeBuffer(allocateDirect(conductorCommands.maxMsgLength()).order(nativeOrder()));
+            }
+
+            return routesBuffer;
+        }
+
+        private Consumer<OctetsFW.Builder> extension(
+            Map<String, String> headers)
+        {
+            if (headers != null)
+            {
+                return e -> e.set((buffer, offset, limit) ->
+                    routeExRW.wrap(buffer, offset, limit)
+                             .headers(hs ->
+                             {
+                                 headers.forEach((k, v) ->
+                                 {
+                                     hs.item(h -> h.name(k).value(v));
+                                 });
+                             })
+                             .build()
+                             .length());
+            }
+            else
+            {
+                return b -> {};
+            }
+        }
+    }
+
+    private static final class CommandDeadline
+    {
+        private final long correlationId;
+        private final long deadline;
+
+        private CommandDeadline(
+            long correlationId,
+            long deadline)
+        {
+            this.correlationId = correlationId;
+            this.deadline = deadline;
+        }
+    }
 }
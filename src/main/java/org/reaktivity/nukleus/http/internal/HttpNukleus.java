@@ -15,27 +15,65 @@
  */
 package org.reaktivity.nukleus.http.internal;
 
-import java.io.Closeable;
+import static org.reaktivity.nukleus.http.internal.util.ProcessProfile.newProcessProfile;
 
 import org.reaktivity.nukleus.Nukleus;
 import org.reaktivity.nukleus.http.internal.conductor.Conductor;
 import org.reaktivity.nukleus.http.internal.router.Router;
+import org.reaktivity.nukleus.http.internal.util.DutyCycle;
+import org.reaktivity.nukleus.http.internal.util.ProcessProfile;
 import org.reaktivity.nukleus.http.internal.watcher.Watcher;
 
 public final class HttpNukleus extends Nukleus.Composite
 {
     static final String NAME = "http";
 
-    private final Closeable cleanup;
+    private final Conductor conductor;
+    private final Watcher watcher;
+    private final Router router;
+    private final DutyCycle dutyCycle;
+    private final Context context;
+    private final int profileSampleMask;
+    private final ProcessProfile conductorProfile;
+    private final ProcessProfile watcherProfile;
+    private final ProcessProfile routerProfile;
+
+    private int cycles;
 
     HttpNukleus(
         Conductor conductor,
         Watcher watcher,
         Router router,
-        Closeable cleanup)
+        DutyCycle dutyCycle,
+        Context context)
     {
         super(conductor, watcher, router);
-        this.cleanup = cleanup;
+        this.conductor = conductor;
+        this.watcher = watcher;
+        this.router = router;
+        this.dutyCycle = dutyCycle;
+        this.context = context;
+        this.profileSampleMask = context.profileSampleMask();
+
+        final boolean profiling = profileSampleMask != 0;
+        this.conductorProfile = profiling ? newProcessProfile(context.counters(), profileLabel(conductor)) : null;
+        this.watcherProfile = profiling ? newProcessProfile(context.counters(), profileLabel(watcher)) : null;
+        this.routerProfile = profiling ? newProcessProfile(context.counters(), profileLabel(router)) : null;
+    }
+
+    @Override
+    public int process()
+    {
+        dutyCycle.begin();
+
+        if (profileSampleMask != 0 && (++cycles & profileSampleMask) == 0)
+        {
+            return dutyCycle.record(ProcessProfile.process(conductorProfile, conductor) +
+                                    ProcessProfile.process(watcherProfile, watcher) +
+                                    ProcessProfile.process(routerProfile, router));
+        }
+
+        return dutyCycle.record(super.process());
     }
 
     @Override
@@ -48,6 +86,26 @@ public final class HttpNukleus extends Nukleus.Composite
     public void close() throws Exception
     {
         super.close();
-        cleanup.close();
+
+        closeProfile(conductorProfile);
+        closeProfile(watcherProfile);
+        closeProfile(routerProfile);
+
+        context.close();
+    }
+
+    private static void closeProfile(
+        ProcessProfile profile)
+    {
+        if (profile != null)
+        {
+            profile.close();
+        }
+    }
+
+    private static String profileLabel(
+        Nukleus component)
+    {
+        return String.format("profile.%s", component.name());
     }
 }
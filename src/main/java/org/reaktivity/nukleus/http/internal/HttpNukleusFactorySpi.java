@@ -15,11 +15,18 @@
  */
 package org.reaktivity.nukleus.http.internal;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 import org.reaktivity.nukleus.Configuration;
 import org.reaktivity.nukleus.Nukleus;
 import org.reaktivity.nukleus.NukleusFactorySpi;
 import org.reaktivity.nukleus.http.internal.conductor.Conductor;
+import org.reaktivity.nukleus.http.internal.routable.Correlation;
 import org.reaktivity.nukleus.http.internal.router.Router;
+import org.reaktivity.nukleus.http.internal.router.Worker;
 import org.reaktivity.nukleus.http.internal.watcher.Watcher;
 
 public final class HttpNukleusFactorySpi implements NukleusFactorySpi
@@ -38,12 +45,34 @@ public final class HttpNukleusFactorySpi implements NukleusFactorySpi
 
         Conductor conductor = new Conductor(context);
         Watcher watcher = new Watcher(context);
-        Router router = new Router(context);
+        Router router = newRouter(context);
 
         conductor.setRouter(router);
         watcher.setRouter(router);
         router.setConductor(conductor);
+        router.restore();
+
+        return new HttpNukleus(conductor, watcher, router, context.newDutyCycle(), context);
+    }
+
+    private static Router newRouter(
+        Context context)
+    {
+        final int workerCount = context.workerCount();
+        if (workerCount == 1)
+        {
+            return new Router(context);
+        }
+
+        final ConcurrentMap<Long, Correlation> correlations = new ConcurrentHashMap<>();
+        final List<Worker> workers = new ArrayList<>(workerCount - 1);
+        for (int index = 1; index < workerCount; index++)
+        {
+            workers.add(new Worker(context, new Router(context, index, correlations)).start());
+        }
 
-        return new HttpNukleus(conductor, watcher, router, context);
+        final Router router = new Router(context, 0, correlations);
+        router.setWorkers(workers);
+        return router;
     }
 }
@@ -15,9 +15,10 @@
  */
 package org.reaktivity.nukleus.http.internal.conductor;
 
-import java.util.Collections;
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
 
 import org.agrona.DirectBuffer;
 import org.agrona.concurrent.AtomicBuffer;
@@ -27,10 +28,11 @@ import org.agrona.concurrent.ringbuffer.RingBuffer;
 import org.reaktivity.nukleus.Nukleus;
 import org.reaktivity.nukleus.Reaktive;
 import org.reaktivity.nukleus.http.internal.Context;
+import org.reaktivity.nukleus.http.internal.routable.RouteEntry;
+import org.reaktivity.nukleus.http.internal.routable.StreamEntry;
 import org.reaktivity.nukleus.http.internal.router.Router;
 import org.reaktivity.nukleus.http.internal.types.OctetsFW;
 import org.reaktivity.nukleus.http.internal.types.control.ErrorFW;
-import org.reaktivity.nukleus.http.internal.types.control.HttpRouteExFW;
 import org.reaktivity.nukleus.http.internal.types.control.Role;
 import org.reaktivity.nukleus.http.internal.types.control.RouteFW;
 import org.reaktivity.nukleus.http.internal.types.control.RoutedFW;
@@ -41,20 +43,22 @@ import org.reaktivity.nukleus.http.internal.types.control.UnroutedFW;
 @Reaktive
 public final class Conductor implements Nukleus
 {
-    private static final Map<String, String> EMPTY_HEADERS = Collections.emptyMap();
-
     private final RouteFW routeRO = new RouteFW();
     private final UnrouteFW unrouteRO = new UnrouteFW();
+    private final RoutesFW routesRO = new RoutesFW();
+    private final StreamsFW streamsRO = new StreamsFW();
 
-    private final HttpRouteExFW httpRouteExRO = new HttpRouteExFW();
+    private final RouteEntryDecoder decoder = new RouteEntryDecoder();
 
     private final ErrorFW.Builder errorRW = new ErrorFW.Builder();
     private final RoutedFW.Builder routedRW = new RoutedFW.Builder();
     private final UnroutedFW.Builder unroutedRW = new UnroutedFW.Builder();
+    private final StreamsPageFW.Builder streamsPageRW = new StreamsPageFW.Builder();
 
     private final RingBuffer conductorCommands;
     private final BroadcastTransmitter conductorResponses;
     private final AtomicBuffer sendBuffer;
+    private final Deque<StreamsResponse> streamsResponses;
 
     private Router router;
 
@@ -64,6 +68,7 @@ public final class Conductor implements Nukleus
         this.conductorCommands = context.conductorCommands();
         this.conductorResponses = context.conductorResponses();
         this.sendBuffer = new UnsafeBuffer(new byte[context.maxControlResponseLength()]);
+        this.streamsResponses = new ArrayDeque<>();
     }
 
     public void setRouter(
@@ -75,7 +80,14 @@ public final class Conductor implements Nukleus
     @Override
     public int process()
     {
-        return conductorCommands.read(this::handleCommand);
+        int workCount = conductorCommands.read(this::handleCommand);
+
+        if (!streamsResponses.isEmpty())
+        {
+            workCount += onStreamsPage(streamsResponses.peekFirst());
+        }
+
+        return workCount;
     }
 
     @Override
@@ -115,6 +127,66 @@ public final class Conductor implements Nukleus
         conductorResponses.transmit(unroutedRO.typeId(), unroutedRO.buffer(), unroutedRO.offset(), unroutedRO.length());
     }
 
+    public void onRoutesResponse(
+        long correlationId)
+    {
+        UnroutedFW routedRO = unroutedRW.wrap(sendBuffer, 0, sendBuffer.capacity())
+                                        .correlationId(correlationId)
+                                        .build();
+
+        conductorResponses.transmit(RoutesFW.ROUTED_TYPE_ID, routedRO.buffer(), routedRO.offset(), routedRO.length());
+    }
+
+    public void onStreamsResponse(
+        long correlationId,
+        List<StreamEntry> entries)
+    {
+        streamsResponses.addLast(new StreamsResponse(correlationId, entries));
+    }
+
+    private int onStreamsPage(
+        StreamsResponse response)
+    {
+        final List<StreamEntry> entries = response.entries;
+
+        streamsPageRW.wrap(sendBuffer, 0, sendBuffer.capacity())
+                     .correlationId(response.correlationId);
+
+        int count = 0;
+        while (response.cursor < entries.size())
+        {
+            final StreamEntry entry = entries.get(response.cursor);
+            final String kind = entry.kind();
+            final String owner = entry.owner();
+            final String target = entry.target();
+            final String state = entry.state();
+
+            if (StreamsPageFW.entryLength(kind, owner, target, state) <= streamsPageRW.remaining())
+            {
+                streamsPageRW.entry(entry.streamId(), entry.targetId(), entry.window(), kind, owner, target, state);
+                count++;
+            }
+            else if (count != 0)
+            {
+                break;
+            }
+
+            // entries larger than an empty page are skipped
+            response.cursor++;
+        }
+
+        if (response.cursor == entries.size())
+        {
+            streamsPageRW.flags(StreamsPageFW.FLAG_LAST);
+            streamsResponses.removeFirst();
+        }
+
+        final StreamsPageFW page = streamsPageRW.build();
+        conductorResponses.transmit(page.typeId(), page.buffer(), page.offset(), page.length());
+
+        return 1;
+    }
+
     private void handleCommand(
         int msgTypeId,
         DirectBuffer buffer,
@@ -129,6 +201,12 @@ public final class Conductor implements Nukleus
         case UnrouteFW.TYPE_ID:
             handleUnrouteCommand(buffer, index, length);
             break;
+        case RoutesFW.TYPE_ID:
+            handleRoutesCommand(buffer, index, length);
+            break;
+        case StreamsFW.TYPE_ID:
+            handleStreamsCommand(buffer, index, length);
+            break;
         default:
             // ignore unrecognized commands (forwards compatible)
             break;
@@ -151,7 +229,7 @@ public final class Conductor implements Nukleus
         final long targetRef = routeRO.targetRef();
         final OctetsFW extension = routeRO.extension();
 
-        router.doRoute(correlationId, role, state, source, sourceRef, target, targetRef, headers(extension));
+        router.doRoute(correlationId, role, state, source, sourceRef, target, targetRef, decoder.headers(extension));
     }
 
     private void handleUnrouteCommand(DirectBuffer buffer, int index, int length)
@@ -167,23 +245,53 @@ public final class Conductor implements Nukleus
         final long targetRef = unrouteRO.targetRef();
         final OctetsFW extension = unrouteRO.extension();
 
-        router.doUnroute(correlationId, role, state, source, sourceRef, target, targetRef, headers(extension));
+        router.doUnroute(correlationId, role, state, source, sourceRef, target, targetRef, decoder.headers(extension));
     }
 
-    private Map<String, String> headers(
-        OctetsFW extension)
+    private void handleRoutesCommand(
+        DirectBuffer buffer,
+        int index,
+        int length)
     {
-        if (extension.length() == 0)
+        routesRO.wrap(buffer, index, index + length);
+
+        final long correlationId = routesRO.correlationId();
+        final List<RouteEntry> routes = new ArrayList<>(routesRO.count());
+        final List<RouteEntry> unroutes = new ArrayList<>();
+
+        if (decoder.decode(routesRO, routes, unroutes))
         {
-            return EMPTY_HEADERS;
+            router.doRoutes(correlationId, routes, unroutes);
         }
         else
         {
-            final HttpRouteExFW routeEx = extension.get(httpRouteExRO::wrap);
-            final Map<String, String> headers = new LinkedHashMap<>();
-            routeEx.headers().forEach(h -> headers.put(h.name().asString(), h.value().asString()));
+            onErrorResponse(correlationId);
+        }
+    }
+
+    private void handleStreamsCommand(
+        DirectBuffer buffer,
+        int index,
+        int length)
+    {
+        streamsRO.wrap(buffer, index, index + length);
 
-            return headers;
+        router.doStreams(streamsRO.correlationId());
+    }
+
+    private static final class StreamsResponse
+    {
+        private final long correlationId;
+        private final List<StreamEntry> entries;
+
+        private int cursor;
+
+        private StreamsResponse(
+            long correlationId,
+            List<StreamEntry> entries)
+        {
+            this.correlationId = correlationId;
+            this.entries = entries;
         }
     }
 }
@@ -0,0 +1,93 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.conductor;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.reaktivity.nukleus.http.internal.routable.RouteEntry;
+import org.reaktivity.nukleus.http.internal.types.OctetsFW;
+import org.reaktivity.nukleus.http.internal.types.control.HttpRouteExFW;
+import org.reaktivity.nukleus.http.internal.types.control.RouteFW;
+import org.reaktivity.nukleus.http.internal.types.control.UnrouteFW;
+
+final class RouteEntryDecoder
+{
+    private static final Map<String, String> EMPTY_HEADERS = Collections.emptyMap();
+
+    private final RouteFW routeRO = new RouteFW();
+    private final UnrouteFW unrouteRO = new UnrouteFW();
+
+    private final HttpRouteExFW httpRouteExRO = new HttpRouteExFW();
+
+    boolean decode(
+        RoutesFW routesRO,
+        List<RouteEntry> routes,
+        List<RouteEntry> unroutes)
+    {
+        final int count = routes.size() + unroutes.size() + routesRO.count();
+
+        routesRO.forEach((typeId, buffer, offset, limit) ->
+        {
+            switch (typeId)
+            {
+            case RouteFW.TYPE_ID:
+                routes.add(route(routeRO.wrap(buffer, offset, limit)));
+                return routeRO.limit();
+            case UnrouteFW.TYPE_ID:
+                unroutes.add(unroute(unrouteRO.wrap(buffer, offset, limit)));
+                return unrouteRO.limit();
+            default:
+                return limit;
+            }
+        });
+
+        return routes.size() + unroutes.size() == count;
+    }
+
+    RouteEntry route(
+        RouteFW route)
+    {
+        return new RouteEntry(route.role().get(), route.state().get(), route.source().asString(), route.sourceRef(),
+                              route.target().asString(), route.targetRef(), headers(route.extension()));
+    }
+
+    RouteEntry unroute(
+        UnrouteFW unroute)
+    {
+        return new RouteEntry(unroute.role().get(), unroute.state().get(), unroute.source().asString(), unroute.sourceRef(),
+                              unroute.target().asString(), unroute.targetRef(), headers(unroute.extension()));
+    }
+
+    Map<String, String> headers(
+        OctetsFW extension)
+    {
+        if (extension.length() == 0)
+        {
+            return EMPTY_HEADERS;
+        }
+        else
+        {
+            final HttpRouteExFW routeEx = extension.get(httpRouteExRO::wrap);
+            final Map<String, String> headers = new LinkedHashMap<>();
+            routeEx.headers().forEach(h -> headers.put(h.name().asString(), h.value().asString()));
+
+            return headers;
+        }
+    }
+}
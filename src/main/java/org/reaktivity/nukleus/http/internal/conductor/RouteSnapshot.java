@@ -0,0 +1,232 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.conductor;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.logging.Level.SEVERE;
+import static java.util.logging.Level.WARNING;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static org.agrona.IoUtil.createEmptyFile;
+import static org.agrona.IoUtil.mapExistingFile;
+import static org.agrona.IoUtil.unmap;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.LangUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.reaktivity.nukleus.http.internal.routable.RouteEntry;
+import org.reaktivity.nukleus.http.internal.types.OctetsFW;
+import org.reaktivity.nukleus.http.internal.types.control.HttpRouteExFW;
+
+/**
+ * Route table snapshot, stored as a single {@link RoutesFW} of route entries in a memory-mapped file.
+ * <p>
+ * The caller encodes each snapshot, while a background thread writes and syncs the latest one
+ * at most once per interval, so route changes never wait for the file system.
+ */
+public final class RouteSnapshot implements AutoCloseable
+{
+    private final RoutesFW routesRO = new RoutesFW();
+    private final RoutesFW.Builder routesRW = new RoutesFW.Builder();
+    private final HttpRouteExFW.Builder routeExRW = new HttpRouteExFW.Builder();
+    private final RouteEntryDecoder decoder = new RouteEntryDecoder();
+
+    private final Path path;
+    private final Path pendingPath;
+    private final ExpandableArrayBuffer writeBuffer;
+    private final long intervalMillis;
+    private final Logger logger;
+    private final ScheduledExecutorService executor;
+    private final AtomicReference<byte[]> pending;
+    private final AtomicBoolean scheduled;
+
+    public RouteSnapshot(
+        Path path,
+        long intervalMillis,
+        Logger logger)
+    {
+        this.path = path;
+        this.pendingPath = path.resolveSibling(path.getFileName() + ".pending");
+        this.writeBuffer = new ExpandableArrayBuffer();
+        this.intervalMillis = intervalMillis;
+        this.logger = logger;
+        this.executor = Executors.newSingleThreadScheduledExecutor(RouteSnapshot::newThread);
+        this.pending = new AtomicReference<>();
+        this.scheduled = new AtomicBoolean();
+    }
+
+    public List<RouteEntry> load()
+    {
+        final File file = path.toFile();
+        if (!file.isFile() || file.length() == 0L)
+        {
+            return Collections.emptyList();
+        }
+
+        final MappedByteBuffer mapped = mapExistingFile(file, "routes");
+        try
+        {
+            final UnsafeBuffer buffer = new UnsafeBuffer(mapped);
+            final List<RouteEntry> routes = new ArrayList<>();
+            final List<RouteEntry> unroutes = new ArrayList<>();
+
+            routesRO.wrap(buffer, 0, buffer.capacity());
+
+            if (decoder.decode(routesRO, routes, unroutes) && unroutes.isEmpty())
+            {
+                return routes;
+            }
+
+            logger.log(WARNING, String.format("ignoring corrupt route snapshot %s", path));
+            return Collections.emptyList();
+        }
+        catch (IndexOutOfBoundsException ex)
+        {
+            logger.log(WARNING, String.format("ignoring corrupt route snapshot %s", path), ex);
+            return Collections.emptyList();
+        }
+        finally
+        {
+            unmap(mapped);
+        }
+    }
+
+    public void store(
+        Iterable<RouteEntry> entries)
+    {
+        routesRW.wrap(writeBuffer, 0, Integer.MAX_VALUE)
+                .correlationId(0L);
+
+        for (RouteEntry entry : entries)
+        {
+            routesRW.route(b -> b.correlationId(0L)
+                                 .role(r -> r.set(entry.role()))
+                                 .state(s -> s.set(entry.state()))
+                                 .source(entry.source())
+                                 .sourceRef(entry.sourceRef())
+                                 .target(entry.target())
+                                 .targetRef(entry.targetRef())
+                                 .extension(extension(entry.headers())));
+        }
+
+        final RoutesFW routes = routesRW.build();
+        final byte[] bytes = new byte[routes.length()];
+        routes.buffer().getBytes(routes.offset(), bytes);
+
+        pending.set(bytes);
+
+        if (scheduled.compareAndSet(false, true))
+        {
+            executor.schedule(this::flush, intervalMillis, MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException
+    {
+        executor.shutdown();
+        executor.awaitTermination(intervalMillis + 1000L, MILLISECONDS);
+
+        // store the latest snapshot even if its scheduled write was cancelled
+        flush();
+    }
+
+    private void flush()
+    {
+        scheduled.set(false);
+
+        final byte[] bytes = pending.getAndSet(null);
+        if (bytes != null)
+        {
+            try
+            {
+                write(bytes);
+            }
+            catch (Exception ex)
+            {
+                logger.log(SEVERE, String.format("unable to store route snapshot %s", path), ex);
+            }
+        }
+    }
+
+    private void write(
+        byte[] bytes)
+    {
+        final File pendingFile = pendingPath.toFile();
+
+        createEmptyFile(pendingFile, bytes.length);
+        final MappedByteBuffer mapped = mapExistingFile(pendingFile, "routes");
+        try
+        {
+            new UnsafeBuffer(mapped).putBytes(0, bytes);
+            mapped.force();
+        }
+        finally
+        {
+            unmap(mapped);
+        }
+
+        try
+        {
+            Files.move(pendingPath, path, REPLACE_EXISTING, ATOMIC_MOVE);
+        }
+        catch (IOException ex)
+        {
+            LangUtil.rethrowUnchecked(ex);
+        }
+    }
+
+    private Consumer<OctetsFW.Builder> extension(
+        Map<String, String> headers)
+    {
+        if (headers.isEmpty())
+        {
+            return e -> {};
+        }
+        else
+        {
+            return e -> e.set((buffer, offset, limit) ->
+                routeExRW.wrap(buffer, offset, limit)
+                         .headers(hs -> headers.forEach((k, v) -> hs.item(h -> h.name(k).value(v))))
+                         .build()
+                         .length());
+        }
+    }
+
+    private static Thread newThread(
+        Runnable runnable)
+    {
+        final Thread thread = new Thread(runnable, "http-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    }
+}
@@ -0,0 +1,171 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.conductor;
+
+import static org.agrona.BitUtil.SIZE_OF_INT;
+import static org.agrona.BitUtil.SIZE_OF_LONG;
+
+import java.util.function.Consumer;
+
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.reaktivity.nukleus.http.internal.types.Flyweight;
+import org.reaktivity.nukleus.http.internal.types.control.RouteFW;
+import org.reaktivity.nukleus.http.internal.types.control.UnrouteFW;
+
+/**
+ * Bulk route command, carrying many route and unroute entries in a single message.
+ * <p>
+ * Layout is {@code [correlationId:int64][count:int32][length:int32]} followed by {@code count} entries,
+ * each {@code [typeId:int32]} followed by a {@link RouteFW} or {@link UnrouteFW}.
+ * The conductor acknowledges the whole command once, with {@link #ROUTED_TYPE_ID} or an error.
+ */
+public final class RoutesFW extends Flyweight
+{
+    public static final int TYPE_ID = 0x00000011;
+    public static final int ROUTED_TYPE_ID = 0x40000011;
+
+    private static final int FIELD_OFFSET_CORRELATION_ID = 0;
+    private static final int FIELD_OFFSET_COUNT = FIELD_OFFSET_CORRELATION_ID + SIZE_OF_LONG;
+    private static final int FIELD_OFFSET_LENGTH = FIELD_OFFSET_COUNT + SIZE_OF_INT;
+    private static final int FIELD_OFFSET_ENTRIES = FIELD_OFFSET_LENGTH + SIZE_OF_INT;
+
+    public long correlationId()
+    {
+        return buffer().getLong(offset() + FIELD_OFFSET_CORRELATION_ID);
+    }
+
+    public int count()
+    {
+        return buffer().getInt(offset() + FIELD_OFFSET_COUNT);
+    }
+
+    public int typeId()
+    {
+        return TYPE_ID;
+    }
+
+    public void forEach(
+        EntryVisitor visitor)
+    {
+        final int limit = limit();
+        int entryOffset = offset() + FIELD_OFFSET_ENTRIES;
+        while (entryOffset < limit)
+        {
+            final int entryTypeId = buffer().getInt(entryOffset);
+            entryOffset = visitor.visit(entryTypeId, buffer(), entryOffset + SIZE_OF_INT, limit);
+        }
+    }
+
+    @Override
+    public RoutesFW wrap(
+        DirectBuffer buffer,
+        int offset,
+        int maxLimit)
+    {
+        super.wrap(buffer, offset, maxLimit);
+        checkLimit(offset + FIELD_OFFSET_ENTRIES, maxLimit);
+        checkLimit(limit(), maxLimit);
+        return this;
+    }
+
+    @Override
+    public int limit()
+    {
+        return offset() + FIELD_OFFSET_ENTRIES + buffer().getInt(offset() + FIELD_OFFSET_LENGTH);
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("ROUTES [correlationId=%d, count=%d]", correlationId(), count());
+    }
+
+    @FunctionalInterface
+    public interface EntryVisitor
+    {
+        int visit(int typeId, DirectBuffer buffer, int offset, int maxLimit);
+    }
+
+    public static final class Builder extends Flyweight.Builder<RoutesFW>
+    {
+        private final RouteFW.Builder routeRW = new RouteFW.Builder();
+        private final UnrouteFW.Builder unrouteRW = new UnrouteFW.Builder();
+
+        public Builder()
+        {
+            super(new RoutesFW());
+        }
+
+        @Override
+        public Builder wrap(
+            MutableDirectBuffer buffer,
+            int offset,
+            int maxLimit)
+        {
+            super.wrap(buffer, offset, maxLimit);
+            checkLimit(offset + FIELD_OFFSET_ENTRIES, maxLimit);
+            buffer.putInt(offset + FIELD_OFFSET_COUNT, 0);
+            buffer.putInt(offset + FIELD_OFFSET_LENGTH, 0);
+            limit(offset + FIELD_OFFSET_ENTRIES);
+            return this;
+        }
+
+        public Builder correlationId(
+            long value)
+        {
+            buffer().putLong(offset() + FIELD_OFFSET_CORRELATION_ID, value);
+            return this;
+        }
+
+        public Builder route(
+            Consumer<RouteFW.Builder> mutator)
+        {
+            final int entryOffset = beginEntry(RouteFW.TYPE_ID);
+            routeRW.wrap(buffer(), entryOffset, maxLimit());
+            mutator.accept(routeRW);
+            return endEntry(routeRW.build().limit());
+        }
+
+        public Builder unroute(
+            Consumer<UnrouteFW.Builder> mutator)
+        {
+            final int entryOffset = beginEntry(UnrouteFW.TYPE_ID);
+            unrouteRW.wrap(buffer(), entryOffset, maxLimit());
+            mutator.accept(unrouteRW);
+            return endEntry(unrouteRW.build().limit());
+        }
+
+        private int beginEntry(
+            int typeId)
+        {
+            final int entryOffset = limit();
+            checkLimit(entryOffset + SIZE_OF_INT, maxLimit());
+            buffer().putInt(entryOffset, typeId);
+            return entryOffset + SIZE_OF_INT;
+        }
+
+        private Builder endEntry(
+            int entryLimit)
+        {
+            final MutableDirectBuffer buffer = buffer();
+            buffer.putInt(offset() + FIELD_OFFSET_COUNT, buffer.getInt(offset() + FIELD_OFFSET_COUNT) + 1);
+            buffer.putInt(offset() + FIELD_OFFSET_LENGTH, entryLimit - offset() - FIELD_OFFSET_ENTRIES);
+            limit(entryLimit);
+            return this;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.conductor;
+
+import static org.agrona.BitUtil.SIZE_OF_LONG;
+
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.reaktivity.nukleus.http.internal.types.Flyweight;
+
+/**
+ * Command requesting a snapshot of the live streams and throttles, layout is {@code [correlationId:int64]}.
+ * The conductor responds with one or more {@link StreamsPageFW} pages, or an error.
+ */
+public final class StreamsFW extends Flyweight
+{
+    public static final int TYPE_ID = 0x00000012;
+
+    private static final int FIELD_OFFSET_CORRELATION_ID = 0;
+    private static final int FIELD_SIZE_CORRELATION_ID = SIZE_OF_LONG;
+
+    public long correlationId()
+    {
+        return buffer().getLong(offset() + FIELD_OFFSET_CORRELATION_ID);
+    }
+
+    public int typeId()
+    {
+        return TYPE_ID;
+    }
+
+    @Override
+    public StreamsFW wrap(
+        DirectBuffer buffer,
+        int offset,
+        int maxLimit)
+    {
+        super.wrap(buffer, offset, maxLimit);
+        checkLimit(limit(), maxLimit);
+        return this;
+    }
+
+    @Override
+    public int limit()
+    {
+        return offset() + FIELD_OFFSET_CORRELATION_ID + FIELD_SIZE_CORRELATION_ID;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("STREAMS [correlationId=%d]", correlationId());
+    }
+
+    public static final class Builder extends Flyweight.Builder<StreamsFW>
+    {
+        public Builder()
+        {
+            super(new StreamsFW());
+        }
+
+        @Override
+        public Builder wrap(
+            MutableDirectBuffer buffer,
+            int offset,
+            int maxLimit)
+        {
+            super.wrap(buffer, offset, maxLimit);
+            checkLimit(offset + FIELD_OFFSET_CORRELATION_ID + FIELD_SIZE_CORRELATION_ID, maxLimit);
+            return this;
+        }
+
+        public Builder correlationId(
+            long value)
+        {
+            buffer().putLong(offset() + FIELD_OFFSET_CORRELATION_ID, value);
+            limit(offset() + FIELD_OFFSET_CORRELATION_ID + FIELD_SIZE_CORRELATION_ID);
+            return this;
+        }
+    }
+}
@@ -0,0 +1,266 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.conductor;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.agrona.BitUtil.SIZE_OF_BYTE;
+import static org.agrona.BitUtil.SIZE_OF_INT;
+import static org.agrona.BitUtil.SIZE_OF_LONG;
+
+import java.util.function.Consumer;
+
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.reaktivity.nukleus.http.internal.types.Flyweight;
+import org.reaktivity.nukleus.http.internal.types.StringFW;
+
+/**
+ * One page of the response to a {@link StreamsFW} command.
+ * <p>
+ * Layout is {@code [correlationId:int64][flags:int32][count:int32][length:int32]} followed by {@code count} entries,
+ * each {@code [streamId:int64][targetId:int64][window:int32][kind:string][owner:string][target:string][state:string]}.
+ * The final page of a response has the {@link #FLAG_LAST} flag set.
+ */
+public final class StreamsPageFW extends Flyweight
+{
+    public static final int TYPE_ID = 0x40000012;
+
+    public static final int FLAG_LAST = 0x01;
+
+    private static final int FIELD_OFFSET_CORRELATION_ID = 0;
+    private static final int FIELD_OFFSET_FLAGS = FIELD_OFFSET_CORRELATION_ID + SIZE_OF_LONG;
+    private static final int FIELD_OFFSET_COUNT = FIELD_OFFSET_FLAGS + SIZE_OF_INT;
+    private static final int FIELD_OFFSET_LENGTH = FIELD_OFFSET_COUNT + SIZE_OF_INT;
+    private static final int FIELD_OFFSET_ENTRIES = FIELD_OFFSET_LENGTH + SIZE_OF_INT;
+
+    private final EntryFW entryRO = new EntryFW();
+
+    public long correlationId()
+    {
+        return buffer().getLong(offset() + FIELD_OFFSET_CORRELATION_ID);
+    }
+
+    public int flags()
+    {
+        return buffer().getInt(offset() + FIELD_OFFSET_FLAGS);
+    }
+
+    public boolean last()
+    {
+        return (flags() & FLAG_LAST) != 0;
+    }
+
+    public int count()
+    {
+        return buffer().getInt(offset() + FIELD_OFFSET_COUNT);
+    }
+
+    public int typeId()
+    {
+        return TYPE_ID;
+    }
+
+    public void forEach(
+        Consumer<EntryFW> consumer)
+    {
+        final int limit = limit();
+        int entryOffset = offset() + FIELD_OFFSET_ENTRIES;
+        while (entryOffset < limit)
+        {
+            final EntryFW entry = entryRO.wrap(buffer(), entryOffset, limit);
+            consumer.accept(entry);
+            entryOffset = entry.limit();
+        }
+    }
+
+    @Override
+    public StreamsPageFW wrap(
+        DirectBuffer buffer,
+        int offset,
+        int maxLimit)
+    {
+        super.wrap(buffer, offset, maxLimit);
+        checkLimit(offset + FIELD_OFFSET_ENTRIES, maxLimit);
+        checkLimit(limit(), maxLimit);
+        return this;
+    }
+
+    @Override
+    public int limit()
+    {
+        return offset() + FIELD_OFFSET_ENTRIES + buffer().getInt(offset() + FIELD_OFFSET_LENGTH);
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("STREAMS_PAGE [correlationId=%d, flags=%d, count=%d]", correlationId(), flags(), count());
+    }
+
+    public static int entryLength(
+        String kind,
+        String owner,
+        String target,
+        String state)
+    {
+        return EntryFW.FIELD_OFFSET_KIND +
+                SIZE_OF_BYTE + kind.getBytes(UTF_8).length +
+                SIZE_OF_BYTE + owner.getBytes(UTF_8).length +
+                SIZE_OF_BYTE + target.getBytes(UTF_8).length +
+                SIZE_OF_BYTE + state.getBytes(UTF_8).length;
+    }
+
+    public static final class EntryFW extends Flyweight
+    {
+        private static final int FIELD_OFFSET_STREAM_ID = 0;
+        private static final int FIELD_OFFSET_TARGET_ID = FIELD_OFFSET_STREAM_ID + SIZE_OF_LONG;
+        private static final int FIELD_OFFSET_WINDOW = FIELD_OFFSET_TARGET_ID + SIZE_OF_LONG;
+        private static final int FIELD_OFFSET_KIND = FIELD_OFFSET_WINDOW + SIZE_OF_INT;
+
+        private final StringFW kindRO = new StringFW();
+        private final StringFW ownerRO = new StringFW();
+        private final StringFW targetRO = new StringFW();
+        private final StringFW stateRO = new StringFW();
+
+        public long streamId()
+        {
+            return buffer().getLong(offset() + FIELD_OFFSET_STREAM_ID);
+        }
+
+        public long targetId()
+        {
+            return buffer().getLong(offset() + FIELD_OFFSET_TARGET_ID);
+        }
+
+        public int window()
+        {
+            return buffer().getInt(offset() + FIELD_OFFSET_WINDOW);
+        }
+
+        public StringFW kind()
+        {
+            return kindRO;
+        }
+
+        public StringFW owner()
+        {
+            return ownerRO;
+        }
+
+        public StringFW target()
+        {
+            return targetRO;
+        }
+
+        public StringFW state()
+        {
+            return stateRO;
+        }
+
+        @Override
+        public EntryFW wrap(
+            DirectBuffer buffer,
+            int offset,
+            int maxLimit)
+        {
+            super.wrap(buffer, offset, maxLimit);
+            kindRO.wrap(buffer, offset + FIELD_OFFSET_KIND, maxLimit);
+            ownerRO.wrap(buffer, kindRO.limit(), maxLimit);
+            targetRO.wrap(buffer, ownerRO.limit(), maxLimit);
+            stateRO.wrap(buffer, targetRO.limit(), maxLimit);
+            checkLimit(limit(), maxLimit);
+            return this;
+        }
+
+        @Override
+        public int limit()
+        {
+            return stateRO.limit();
+        }
+    }
+
+    public static final class Builder extends Flyweight.Builder<StreamsPageFW>
+    {
+        private final StringFW.Builder stringRW = new StringFW.Builder();
+
+        public Builder()
+        {
+            super(new StreamsPageFW());
+        }
+
+        @Override
+        public Builder wrap(
+            MutableDirectBuffer buffer,
+            int offset,
+            int maxLimit)
+        {
+            super.wrap(buffer, offset, maxLimit);
+            checkLimit(offset + FIELD_OFFSET_ENTRIES, maxLimit);
+            buffer.putInt(offset + FIELD_OFFSET_FLAGS, 0);
+            buffer.putInt(offset + FIELD_OFFSET_COUNT, 0);
+            buffer.putInt(offset + FIELD_OFFSET_LENGTH, 0);
+            limit(offset + FIELD_OFFSET_ENTRIES);
+            return this;
+        }
+
+        public Builder correlationId(
+            long value)
+        {
+            buffer().putLong(offset() + FIELD_OFFSET_CORRELATION_ID, value);
+            return this;
+        }
+
+        public Builder flags(
+            int value)
+        {
+            buffer().putInt(offset() + FIELD_OFFSET_FLAGS, value);
+            return this;
+        }
+
+        public int remaining()
+        {
+            return maxLimit() - limit();
+        }
+
+        public Builder entry(
+            long streamId,
+            long targetId,
+            int window,
+            String kind,
+            String owner,
+            String target,
+            String state)
+        {
+            final MutableDirectBuffer buffer = buffer();
+            final int entryOffset = limit();
+            checkLimit(entryOffset + EntryFW.FIELD_OFFSET_KIND, maxLimit());
+            buffer.putLong(entryOffset + EntryFW.FIELD_OFFSET_STREAM_ID, streamId);
+            buffer.putLong(entryOffset + EntryFW.FIELD_OFFSET_TARGET_ID, targetId);
+            buffer.putInt(entryOffset + EntryFW.FIELD_OFFSET_WINDOW, window);
+
+            int entryLimit = entryOffset + EntryFW.FIELD_OFFSET_KIND;
+            entryLimit = stringRW.wrap(buffer, entryLimit, maxLimit()).set(kind, UTF_8).build().limit();
+            entryLimit = stringRW.wrap(buffer, entryLimit, maxLimit()).set(owner, UTF_8).build().limit();
+            entryLimit = stringRW.wrap(buffer, entryLimit, maxLimit()).set(target, UTF_8).build().limit();
+            entryLimit = stringRW.wrap(buffer, entryLimit, maxLimit()).set(state, UTF_8).build().limit();
+
+            buffer.putInt(offset() + FIELD_OFFSET_COUNT, buffer.getInt(offset() + FIELD_OFFSET_COUNT) + 1);
+            buffer.putInt(offset() + FIELD_OFFSET_LENGTH, entryLimit - offset() - FIELD_OFFSET_ENTRIES);
+            limit(entryLimit);
+            return this;
+        }
+    }
+}
@@ -15,6 +15,7 @@
  */
 package org.reaktivity.nukleus.http.internal.layouts;
 
+import static org.agrona.BitUtil.SIZE_OF_INT;
 import static org.agrona.IoUtil.createEmptyFile;
 import static org.agrona.IoUtil.mapExistingFile;
 import static org.agrona.IoUtil.unmap;
@@ -23,6 +24,7 @@ import java.io.File;
 import java.nio.MappedByteBuffer;
 import java.nio.file.Path;
 
+import org.agrona.UnsafeAccess;
 import org.agrona.concurrent.AtomicBuffer;
 import org.agrona.concurrent.UnsafeBuffer;
 import org.agrona.concurrent.ringbuffer.OneToOneRingBuffer;
@@ -65,6 +67,7 @@ public final class StreamsLayout extends Layout
         private long throttleCapacity;
         private Path path;
         private boolean readonly;
+        private boolean pretouch;
 
         public Builder streamsCapacity(
             long streamsCapacity)
@@ -94,6 +97,13 @@ public final class StreamsLayout extends Layout
             return this;
         }
 
+        public Builder pretouch(
+            boolean pretouch)
+        {
+            this.pretouch = pretouch;
+            return this;
+        }
+
         @Override
         public StreamsLayout build()
         {
@@ -112,7 +122,44 @@ public final class StreamsLayout extends Layout
             final AtomicBuffer atomicStreams = new UnsafeBuffer(mappedStreams);
             final AtomicBuffer atomicThrottle = new UnsafeBuffer(mappedThrottle);
 
+            if (pretouch && readonly)
+            {
+                // source frames are only read, but the reader writes the head position in the trailer
+                mappedStreams.load();
+                touch(atomicStreams, atomicStreams.capacity() - RingBufferDescriptor.TRAILER_LENGTH);
+
+                // source throttle frames are written by the nukleus
+                touch(atomicThrottle, 0);
+            }
+            else if (pretouch)
+            {
+                touch(atomicStreams, 0);
+                touch(atomicThrottle, 0);
+            }
+
             return new StreamsLayout(new OneToOneRingBuffer(atomicStreams), new OneToOneRingBuffer(atomicThrottle));
         }
+
+        private static void touch(
+            AtomicBuffer buffer,
+            int fromIndex)
+        {
+            // write fault each page without disturbing concurrent updates from the other side
+            final int pageSize = UnsafeAccess.UNSAFE.pageSize();
+            final int lastIndex = buffer.capacity() - SIZE_OF_INT;
+            for (int index = fromIndex; index < lastIndex; index += pageSize)
+            {
+                touchInt(buffer, index);
+            }
+            touchInt(buffer, lastIndex);
+        }
+
+        private static void touchInt(
+            AtomicBuffer buffer,
+            int index)
+        {
+            final int value = buffer.getIntVolatile(index);
+            buffer.compareAndSetInt(index, value, value);
+        }
     }
 }
@@ -0,0 +1,137 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.layouts;
+
+import static org.agrona.BitUtil.SIZE_OF_INT;
+import static org.agrona.BitUtil.SIZE_OF_LONG;
+import static org.agrona.BitUtil.isPowerOfTwo;
+import static org.agrona.IoUtil.createEmptyFile;
+import static org.agrona.IoUtil.mapExistingFile;
+import static org.agrona.IoUtil.unmap;
+
+import java.io.File;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Path;
+
+import org.agrona.concurrent.AtomicBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+
+/**
+ * Memory-mapped ring of fixed-length frame trace records, followed by a trailer holding the write position.
+ * <p>
+ * Writers claim a record by atomically advancing the position, then publish the record by writing its sequence,
+ * the position just after the record, last. Readers discard any record whose sequence does not match its position,
+ * because it has since been overwritten or is still being written.
+ */
+public final class TraceLayout extends Layout
+{
+    public static final int RECORD_LENGTH = 64;
+
+    public static final int SEQUENCE_OFFSET = 0;
+    public static final int TIMESTAMP_OFFSET = SEQUENCE_OFFSET + SIZE_OF_LONG;
+    public static final int STREAM_ID_OFFSET = TIMESTAMP_OFFSET + SIZE_OF_LONG;
+    public static final int VALUE_OFFSET = STREAM_ID_OFFSET + SIZE_OF_LONG;
+    public static final int TYPE_ID_OFFSET = VALUE_OFFSET + SIZE_OF_LONG;
+    public static final int LENGTH_OFFSET = TYPE_ID_OFFSET + SIZE_OF_INT;
+    public static final int CHANNEL_OFFSET = LENGTH_OFFSET + SIZE_OF_INT;
+    public static final int NAME_OFFSET = CHANNEL_OFFSET + SIZE_OF_INT;
+    public static final int NAME_LENGTH = RECORD_LENGTH - NAME_OFFSET;
+
+    public static final int POSITION_OFFSET = 0;
+    public static final int TRAILER_LENGTH = 128;
+
+    private final MappedByteBuffer mapped;
+    private final AtomicBuffer recordsBuffer;
+    private final AtomicBuffer trailerBuffer;
+
+    private TraceLayout(
+        MappedByteBuffer mapped,
+        AtomicBuffer recordsBuffer,
+        AtomicBuffer trailerBuffer)
+    {
+        this.mapped = mapped;
+        this.recordsBuffer = recordsBuffer;
+        this.trailerBuffer = trailerBuffer;
+    }
+
+    public AtomicBuffer recordsBuffer()
+    {
+        return recordsBuffer;
+    }
+
+    public AtomicBuffer trailerBuffer()
+    {
+        return trailerBuffer;
+    }
+
+    @Override
+    public void close()
+    {
+        unmap(mapped);
+    }
+
+    public static final class Builder extends Layout.Builder<TraceLayout>
+    {
+        private int capacity;
+        private Path path;
+        private boolean readonly;
+
+        public Builder capacity(
+            int capacity)
+        {
+            this.capacity = capacity;
+            return this;
+        }
+
+        public Builder path(
+            Path path)
+        {
+            this.path = path;
+            return this;
+        }
+
+        public Builder readonly(
+            boolean readonly)
+        {
+            this.readonly = readonly;
+            return this;
+        }
+
+        @Override
+        public TraceLayout build()
+        {
+            final File trace = path.toFile();
+
+            if (!readonly)
+            {
+                if (!isPowerOfTwo(capacity) || capacity < RECORD_LENGTH)
+                {
+                    throw new IllegalArgumentException("trace capacity must be a power of two of at least " + RECORD_LENGTH);
+                }
+
+                createEmptyFile(trace, capacity + TRAILER_LENGTH);
+            }
+
+            final MappedByteBuffer mapped = mapExistingFile(trace, "trace");
+            final int recordsCapacity = mapped.capacity() - TRAILER_LENGTH;
+
+            final AtomicBuffer recordsBuffer = new UnsafeBuffer(mapped, 0, recordsCapacity);
+            final AtomicBuffer trailerBuffer = new UnsafeBuffer(mapped, recordsCapacity, TRAILER_LENGTH);
+
+            return new TraceLayout(mapped, recordsBuffer, trailerBuffer);
+        }
+    }
+}
@@ -18,6 +18,7 @@ package org.reaktivity.nukleus.http.internal.routable;
 import static java.util.Objects.requireNonNull;
 
 import java.util.Objects;
+import java.util.function.Consumer;
 
 import org.reaktivity.nukleus.http.internal.router.RouteKind;
 
@@ -26,15 +27,36 @@ public class Correlation
     private final String source;
     private final long id;
     private final RouteKind established;
+    private final RouteCounters counters;
+    private final long beginAt;
+    private final Consumer<RouteTable> unpinRouteTable;
+
+    private RouteTable routeTable;
 
     public Correlation(
         long id,
         String source,
         RouteKind established)
+    {
+        this(id, source, established, null, 0L, null, null);
+    }
+
+    public Correlation(
+        long id,
+        String source,
+        RouteKind established,
+        RouteCounters counters,
+        long beginAt,
+        RouteTable routeTable,
+        Consumer<RouteTable> unpinRouteTable)
     {
         this.id = id;
         this.source = requireNonNull(source, "source");
         this.established = requireNonNull(established, "established");
+        this.counters = counters;
+        this.beginAt = beginAt;
+        this.routeTable = routeTable;
+        this.unpinRouteTable = unpinRouteTable;
     }
 
     public String source()
@@ -52,6 +74,26 @@ public class Correlation
         return established;
     }
 
+    public RouteCounters counters()
+    {
+        return counters;
+    }
+
+    public long beginAt()
+    {
+        return beginAt;
+    }
+
+    public void release()
+    {
+        final RouteTable pinned = routeTable;
+        if (pinned != null)
+        {
+            routeTable = null;
+            unpinRouteTable.accept(pinned);
+        }
+    }
+
     @Override
     public int hashCode()
     {
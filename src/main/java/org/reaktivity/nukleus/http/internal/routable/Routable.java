@@ -15,17 +15,20 @@
  */
 package org.reaktivity.nukleus.http.internal.routable;
 
-import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
 import static org.reaktivity.nukleus.http.internal.routable.Route.headersMatch;
 import static org.reaktivity.nukleus.http.internal.routable.Route.sourceMatches;
 import static org.reaktivity.nukleus.http.internal.routable.Route.sourceRefMatches;
 import static org.reaktivity.nukleus.http.internal.routable.Route.targetMatches;
 import static org.reaktivity.nukleus.http.internal.routable.Route.targetRefMatches;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.function.LongFunction;
 import java.util.function.LongSupplier;
 import java.util.function.Predicate;
@@ -34,49 +37,134 @@ import org.agrona.LangUtil;
 import org.agrona.collections.Long2ObjectHashMap;
 import org.agrona.concurrent.AtomicBuffer;
 import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.status.AtomicCounter;
 import org.reaktivity.nukleus.Nukleus;
 import org.reaktivity.nukleus.Reaktive;
 import org.reaktivity.nukleus.http.internal.Context;
-import org.reaktivity.nukleus.http.internal.conductor.Conductor;
 import org.reaktivity.nukleus.http.internal.layouts.StreamsLayout;
+import org.reaktivity.nukleus.http.internal.layouts.TraceLayout;
+import org.reaktivity.nukleus.http.internal.util.FrameTracer;
+import org.reaktivity.nukleus.http.internal.util.Histogram;
+import org.reaktivity.nukleus.http.internal.util.OverflowQueue;
+import org.reaktivity.nukleus.http.internal.util.ProcessProfile;
 import org.reaktivity.nukleus.http.internal.util.function.LongObjectBiConsumer;
 
 @Reaktive
 public final class Routable extends Nukleus.Composite
 {
-    private static final List<Route> EMPTY_ROUTES = emptyList();
-
     private final Context context;
     private final String sourceName;
-    private final Conductor conductor;
+    private final int workerIndex;
     private final AtomicBuffer writeBuffer;
     private final Map<String, Source> sourcesByPartitionName;
     private final Map<String, Target> targetsByName;
-    private final Long2ObjectHashMap<List<Route>> routesByRef;
+    private final List<Source> sources;
+    private final List<Target> targets;
+    private final List<RouteTable> retiredRouteTables;
+    private final Deque<RetiredCounters> retiredCounters;
     private final LongObjectBiConsumer<Correlation> correlateNew;
     private final LongFunction<Correlation> correlateEstablished;
     private final LongFunction<Correlation> lookupEstablished;
     private final LongSupplier supplyTargetId;
+    private final AtomicCounter framesRead;
+    private final AtomicCounter readsPreempted;
+    private final AtomicCounter streamsPinned;
+    private final Histogram decodeTimes;
+    private final int profileSampleMask;
+    private final Map<Nukleus, ProcessProfile> profiles;
+
+    private RouteTable routeTable;
+    private volatile boolean routeTablesUnpinned;
+    private int sourceCursor;
+    private int targetCursor;
+    private int cycles;
 
     public Routable(
         Context context,
-        Conductor conductor,
         String sourceName,
+        int workerIndex,
+        LongSupplier supplyTargetId,
         LongObjectBiConsumer<Correlation> correlateNew,
         LongFunction<Correlation> correlateEstablished,
         LongFunction<Correlation> lookupEstablished)
     {
         this.context = context;
-        this.conductor = conductor;
         this.sourceName = sourceName;
+        this.workerIndex = workerIndex;
         this.correlateNew = correlateNew;
         this.correlateEstablished = correlateEstablished;
         this.lookupEstablished = lookupEstablished;
         this.writeBuffer = new UnsafeBuffer(new byte[context.maxMessageLength()]);
         this.sourcesByPartitionName = new HashMap<>();
         this.targetsByName = new HashMap<>();
-        this.routesByRef = new Long2ObjectHashMap<>();
-        this.supplyTargetId = context.counters().streamsSourced()::increment;
+        this.sources = new ArrayList<>();
+        this.targets = new ArrayList<>();
+        this.routeTable = RouteTable.empty();
+        this.retiredRouteTables = new ArrayList<>();
+        this.retiredCounters = new ArrayDeque<>();
+        this.streamsPinned = context.counters().streamsPinned();
+        this.decodeTimes = Histogram.newHistogram(context.counters(), label("decode.%s", sourceName),
+                context.histogramSubBucketBits());
+        this.supplyTargetId = supplyTargetId;
+        this.framesRead = context.counters().framesRead();
+        this.readsPreempted = context.counters().readsPreempted();
+        this.profileSampleMask = context.profileSampleMask();
+        this.profiles = new HashMap<>();
+    }
+
+    @Override
+    public int process()
+    {
+        final int sourceCount = sources.size();
+        final int targetCount = targets.size();
+        final boolean sampled = profileSampleMask != 0 && (++cycles & profileSampleMask) == 0;
+
+        int workCount = 0;
+        int preemptCount = 0;
+
+        for (int i = 0; i < sourceCount; i++)
+        {
+            final Source source = sources.get((sourceCursor + i) % sourceCount);
+            workCount += sampled ? ProcessProfile.process(profiles.get(source), source) : source.process();
+            preemptCount += source.isPreempted() ? 1 : 0;
+        }
+
+        for (int i = 0; i < targetCount; i++)
+        {
+            final Target target = targets.get((targetCursor + i) % targetCount);
+            workCount += sampled ? ProcessProfile.process(profiles.get(target), target) : target.process();
+            preemptCount += target.isPreempted() ? 1 : 0;
+        }
+
+        for (int i = 0; i < sourceCount; i++)
+        {
+            sources.get(i).flushWindows();
+        }
+
+        for (int i = 0; i < targetCount; i++)
+        {
+            targets.get(i).flush();
+        }
+
+        sourceCursor = sourceCount == 0 ? 0 : (sourceCursor + 1) % sourceCount;
+        targetCursor = targetCount == 0 ? 0 : (targetCursor + 1) % targetCount;
+
+        if (workCount != 0)
+        {
+            framesRead.add(workCount);
+        }
+
+        if (preemptCount != 0)
+        {
+            readsPreempted.add(preemptCount);
+        }
+
+        if (routeTablesUnpinned)
+        {
+            releaseRetiredRoutes();
+        }
+
+        return workCount;
     }
 
     @Override
@@ -85,72 +173,283 @@ public final class Routable extends Nukleus.Composite
         return sourceName;
     }
 
+    @Override
+    public void close() throws Exception
+    {
+        super.close();
+
+        if (decodeTimes != null)
+        {
+            decodeTimes.close();
+        }
+
+        profiles.values().forEach(ProcessProfile::close);
+        profiles.clear();
+
+        retiredCounters.forEach(retired -> retired.counters.close());
+        retiredCounters.clear();
+    }
+
     public void onReadable(
         String partitionName)
     {
         sourcesByPartitionName.computeIfAbsent(partitionName, this::newSource);
     }
 
+    public void onExpired(
+        String partitionName)
+    {
+        final Source source = sourcesByPartitionName.remove(partitionName);
+        if (source != null)
+        {
+            sources.remove(source);
+
+            final ProcessProfile profile = profiles.remove(source);
+            if (profile != null)
+            {
+                profile.close();
+            }
+
+            try
+            {
+                exclude(source).close();
+            }
+            catch (Exception ex)
+            {
+                LangUtil.rethrowUnchecked(ex);
+            }
+        }
+    }
+
+    public boolean isEmpty()
+    {
+        return sourcesByPartitionName.isEmpty() && routeTable.isEmpty();
+    }
+
+    public RouteTable routeTable()
+    {
+        return routeTable;
+    }
+
     public void doRoute(
-        long correlationId,
         long sourceRef,
         String targetName,
         long targetRef,
         Map<String, String> headers)
     {
-        try
+        final Route newRoute = newRoute(sourceRef, targetName, targetRef, headers);
+
+        swapRouteTable(routeTable.withRoutes(singletonList(newRoute)));
+    }
+
+    public boolean doUnroute(
+        long sourceRef,
+        String targetName,
+        long targetRef,
+        Map<String, String> headers)
+    {
+        final Predicate<Route> filter = unrouteFilter(sourceRef, targetName, targetRef, headers);
+        final RouteTable oldRouteTable = routeTable;
+
+        if (swapRouteTable(oldRouteTable.withoutRoutes(sourceRef, filter)))
+        {
+            retireRoutes(oldRouteTable.routes(sourceRef), filter, routeTable.version());
+            releaseRetiredRoutes();
+            return true;
+        }
+
+        return false;
+    }
+
+    public void doRoutes(
+        List<RouteEntry> entries)
+    {
+        final List<Route> newRoutes = new ArrayList<>(entries.size());
+
+        for (RouteEntry entry : entries)
+        {
+            newRoutes.add(newRoute(entry.sourceRef(), entry.target(), entry.targetRef(), entry.headers()));
+        }
+
+        swapRouteTable(routeTable.withRoutes(newRoutes));
+    }
+
+    public boolean doUnroutes(
+        List<RouteEntry> entries)
+    {
+        boolean unrouted = true;
+        final Long2ObjectHashMap<List<Route>> changedRoutesByRef = new Long2ObjectHashMap<>();
+        final List<Route> removedRoutes = new ArrayList<>();
+
+        for (RouteEntry entry : entries)
         {
-            final Target target = supplyTarget(targetName);
-            final Route newRoute = new Route(sourceName, sourceRef, target, targetRef, headers);
+            final long sourceRef = entry.sourceRef();
+            final Predicate<Route> filter = unrouteFilter(sourceRef, entry.target(), entry.targetRef(), entry.headers());
 
-            routesByRef.computeIfAbsent(sourceRef, this::newRoutes)
-                       .add(newRoute);
+            List<Route> routes = changedRoutesByRef.get(sourceRef);
+            if (routes == null)
+            {
+                routes = new ArrayList<>(routeTable.routes(sourceRef));
+                changedRoutesByRef.put(sourceRef, routes);
+            }
 
-            conductor.onRoutedResponse(correlationId, sourceRef);
+            unrouted &= routes.removeIf(route -> filter.test(route) && removedRoutes.add(route));
         }
-        catch (Exception ex)
+
+        if (!removedRoutes.isEmpty())
         {
-            conductor.onErrorResponse(correlationId);
-            LangUtil.rethrowUnchecked(ex);
+            swapRouteTable(routeTable.withChangedRoutes(changedRoutesByRef));
+            retireRoutes(removedRoutes, route -> true, routeTable.version());
+            releaseRetiredRoutes();
         }
+
+        return unrouted;
+    }
+
+    List<Source> sources()
+    {
+        return sources;
     }
 
-    public void doUnroute(
-        long correlationId,
+    List<Target> targets()
+    {
+        return targets;
+    }
+
+    public void forEachRoute(
+        Consumer<Route> action)
+    {
+        routeTable.forEach(action);
+    }
+
+    private Route newRoute(
         long sourceRef,
         String targetName,
         long targetRef,
         Map<String, String> headers)
     {
-        final List<Route> routes = supplyRoutes(sourceRef);
+        final Target target = supplyTarget(targetName);
+        RouteCounters counters = null;
+
+        if (context.routeCounters())
+        {
+            final String label = label("route.%s.%d.%s.%d", sourceName, sourceRef, targetName, targetRef);
+            counters = RouteCounters.newRouteCounters(context.counters(), label, context.histogramSubBucketBits());
+
+            if (counters == null)
+            {
+                context.logger().warning(String.format("%s: counters buffer full, route is not counted", label));
+            }
+        }
+
+        return new Route(sourceName, sourceRef, target, targetRef, headers, counters);
+    }
+
+    private String label(
+        String format,
+        Object... args)
+    {
+        final String label = String.format(format, args);
+        return workerIndex == 0 ? label : String.format("%s#%d", label, workerIndex);
+    }
+
+    private void retireRoutes(
+        List<Route> routes,
+        Predicate<Route> filter,
+        long version)
+    {
+        for (Route route : routes)
+        {
+            final RouteCounters counters = route.counters();
+            if (counters != null && filter.test(route))
+            {
+                retiredCounters.add(new RetiredCounters(version, counters));
+            }
+        }
+    }
 
-        final Predicate<Route> filter =
-                sourceMatches(sourceName)
-                 .and(sourceRefMatches(sourceRef))
-                 .and(targetMatches(targetName))
-                 .and(targetRefMatches(targetRef))
-                 .and(headersMatch(headers));
+    private void releaseRetiredRoutes()
+    {
+        routeTablesUnpinned = false;
+        retiredRouteTables.removeIf(retired -> retired.streams() == 0);
 
-        if (routes.removeIf(filter))
+        long pinnedVersion = Long.MAX_VALUE;
+        for (RouteTable retired : retiredRouteTables)
         {
-            conductor.onUnroutedResponse(correlationId);
+            pinnedVersion = Math.min(pinnedVersion, retired.version());
         }
-        else
+
+        while (!retiredCounters.isEmpty() && retiredCounters.peek().version <= pinnedVersion)
         {
-            conductor.onErrorResponse(correlationId);
+            retiredCounters.poll().counters.close();
         }
     }
 
-    private List<Route> newRoutes(
-        long sourceRef)
+    private Predicate<Route> unrouteFilter(
+        long sourceRef,
+        String targetName,
+        long targetRef,
+        Map<String, String> headers)
+    {
+        return sourceMatches(sourceName)
+                .and(sourceRefMatches(sourceRef))
+                .and(targetMatches(targetName))
+                .and(targetRefMatches(targetRef))
+                .and(headersMatch(headers));
+    }
+
+    private boolean swapRouteTable(
+        RouteTable newRouteTable)
     {
-        return new ArrayList<>();
+        final RouteTable oldRouteTable = routeTable;
+
+        if (newRouteTable == oldRouteTable)
+        {
+            return false;
+        }
+
+        routeTable = newRouteTable;
+
+        final int oldStreams = oldRouteTable.retire();
+        if (oldStreams != 0)
+        {
+            retiredRouteTables.add(oldRouteTable);
+            streamsPinned.add(oldStreams);
+        }
+
+        return true;
     }
 
     private List<Route> supplyRoutes(
         long referenceId)
     {
-        return routesByRef.getOrDefault(referenceId, EMPTY_ROUTES);
+        return routeTable.routes(referenceId);
+    }
+
+    private RouteTable pinRouteTable()
+    {
+        final RouteTable pinned = routeTable;
+        pinned.pin();
+        return pinned;
+    }
+
+    private void retainRouteTable(
+        RouteTable pinned)
+    {
+        if (pinned.pin())
+        {
+            streamsPinned.increment();
+        }
+    }
+
+    private void unpinRouteTable(
+        RouteTable pinned)
+    {
+        if (pinned.unpin())
+        {
+            streamsPinned.add(-1L);
+            routeTablesUnpinned = true;
+        }
     }
 
     private Source newSource(
@@ -161,12 +460,49 @@ public final class Routable extends Nukleus.Composite
             .streamsCapacity(context.streamsBufferCapacity())
             .throttleCapacity(context.throttleBufferCapacity())
             .readonly(true)
+            .pretouch(context.pretouchLayouts())
             .build();
 
-        return include(new Source(sourceName, partitionName, layout, writeBuffer,
-                                  this::supplyRoutes, supplyTargetId,
-                                  this::supplyTarget, correlateNew, lookupEstablished,
-                                  correlateEstablished));
+        final Source source = new Source(sourceName, partitionName, layout, writeBuffer, newOverflowQueue(),
+                                         this::supplyRoutes, this::pinRouteTable, this::retainRouteTable, this::unpinRouteTable,
+                                         supplyTargetId, this::supplyTarget, correlateNew, lookupEstablished,
+                                         correlateEstablished, decodeTimes, context.routeCounters(), context.nanoClock(),
+                                         newFrameTracer(partitionName),
+                                         context.maximumStreamsCount(),
+                                         context.sourceReadBudget(), context.windowThreshold());
+        sources.add(source);
+        newProfile(source, label("profile.%s.source.%s", sourceName, partitionName));
+
+        return include(source);
+    }
+
+    private void newProfile(
+        Nukleus component,
+        String label)
+    {
+        if (profileSampleMask != 0)
+        {
+            final ProcessProfile profile = ProcessProfile.newProcessProfile(context.counters(), label);
+            if (profile != null)
+            {
+                profiles.put(component, profile);
+            }
+        }
+    }
+
+    private FrameTracer newFrameTracer(
+        String name)
+    {
+        final TraceLayout traceLayout = context.traceLayout();
+        return traceLayout != null ? new FrameTracer(traceLayout, label("%s", name)) : null;
+    }
+
+    private OverflowQueue newOverflowQueue()
+    {
+        return new OverflowQueue(context.overflowCapacity(),
+                                 context.maxMessageLength(),
+                                 context.counters().framesSpilled(),
+                                 context.counters().framesDropped());
     }
 
     private Target supplyTarget(
@@ -178,13 +514,33 @@ public final class Routable extends Nukleus.Composite
     private Target newTarget(
         String targetName)
     {
-        StreamsLayout layout = new StreamsLayout.Builder()
-                .path(context.targetStreamsPath().apply(sourceName, targetName))
-                .streamsCapacity(context.streamsBufferCapacity())
-                .throttleCapacity(context.throttleBufferCapacity())
-                .readonly(false)
-                .build();
+        final TargetLayouts targetLayouts = context.targetLayouts();
+        final StreamsLayout layout = targetLayouts.supply(targetLayouts.path(sourceName, workerIndex, targetName));
+
+        final StallCounters stalls = StallCounters.newStallCounters(context.counters(),
+                label("stall.%s.%s", sourceName, targetName), context.stallThresholdNanos(), context.logger(),
+                context.nanoClock());
+
+        final Target target = new Target(targetName, layout, writeBuffer, newOverflowQueue(),
+                                         context.targetReadBudget(), context.targetBatching(), stalls, context.nanoClock(),
+                                         newFrameTracer(String.format("%s>%s", sourceName, targetName)));
+        targets.add(target);
+        newProfile(target, label("profile.%s.target.%s", sourceName, targetName));
+
+        return include(target);
+    }
 
-        return include(new Target(targetName, layout, writeBuffer));
+    private static final class RetiredCounters
+    {
+        private final long version;
+        private final RouteCounters counters;
+
+        private RetiredCounters(
+            long version,
+            RouteCounters counters)
+        {
+            this.version = version;
+            this.counters = counters;
+        }
     }
 }
@@ -26,6 +26,7 @@ public final class Route
     private final Target target;
     private final long targetRef;
     private final Map<String, String> headers;
+    private final RouteCounters counters;
 
     public Route(
         String source,
@@ -33,6 +34,17 @@ public final class Route
         Target target,
         long targetRef,
         Map<String, String> headers)
+    {
+        this(source, sourceRef, target, targetRef, headers, null);
+    }
+
+    public Route(
+        String source,
+        long sourceRef,
+        Target target,
+        long targetRef,
+        Map<String, String> headers,
+        RouteCounters counters)
     {
         Objects.requireNonNull(target);
         Objects.requireNonNull(headers);
@@ -42,6 +54,7 @@ public final class Route
         this.target = target;
         this.targetRef = targetRef;
         this.headers = headers;
+        this.counters = counters;
     }
 
     public String source()
@@ -69,6 +82,11 @@ public final class Route
         return headers;
     }
 
+    public RouteCounters counters()
+    {
+        return counters;
+    }
+
     @Override
     public int hashCode()
     {
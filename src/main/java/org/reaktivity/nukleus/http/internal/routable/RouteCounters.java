@@ -0,0 +1,121 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.routable;
+
+import org.agrona.concurrent.status.AtomicCounter;
+import org.reaktivity.nukleus.http.internal.Counters;
+import org.reaktivity.nukleus.http.internal.util.Histogram;
+
+/**
+ * Request, byte and status counters, and a time-to-first-byte histogram, for a single {@link Route}.
+ * <p>
+ * Request-side counters are only written by the worker that owns the route, so they use ordered writes.
+ * Responses are counted by whichever worker handles the reply, so response-side counters use atomic adds.
+ */
+public final class RouteCounters implements AutoCloseable
+{
+    private static final int STATUS_CLASS_COUNT = 5;
+    private static final String[] COUNTER_NAMES =
+        { "requests", "request.bytes", "response.bytes", "1xx", "2xx", "3xx", "4xx", "5xx" };
+
+    private final Counters counters;
+    private final AtomicCounter requests;
+    private final AtomicCounter requestBytes;
+    private final AtomicCounter responseBytes;
+    private final AtomicCounter[] responses;
+    private final Histogram timeToFirstByte;
+
+    private RouteCounters(
+        Counters counters,
+        AtomicCounter[] allocated,
+        Histogram timeToFirstByte)
+    {
+        this.counters = counters;
+        this.timeToFirstByte = timeToFirstByte;
+        this.requests = allocated[0];
+        this.requestBytes = allocated[1];
+        this.responseBytes = allocated[2];
+        this.responses = new AtomicCounter[STATUS_CLASS_COUNT];
+        System.arraycopy(allocated, COUNTER_NAMES.length - STATUS_CLASS_COUNT, responses, 0, responses.length);
+    }
+
+    public void onRequest(
+        int bytes)
+    {
+        requests.addOrdered(1L);
+        requestBytes.addOrdered(bytes);
+    }
+
+    public void onRequestBytes(
+        int bytes)
+    {
+        requestBytes.addOrdered(bytes);
+    }
+
+    public void onResponse(
+        String status,
+        int bytes)
+    {
+        final int statusClass = status.isEmpty() ? -1 : status.charAt(0) - '1';
+        if (statusClass >= 0 && statusClass < responses.length)
+        {
+            responses[statusClass].increment();
+        }
+
+        responseBytes.add(bytes);
+    }
+
+    public void onFirstByte(
+        long nanos)
+    {
+        if (timeToFirstByte != null)
+        {
+            timeToFirstByte.recordAtomic(nanos);
+        }
+    }
+
+    public void onResponseBytes(
+        int bytes)
+    {
+        responseBytes.add(bytes);
+    }
+
+    @Override
+    public void close()
+    {
+        counters.freeCounters(requests, requestBytes, responseBytes);
+        counters.freeCounters(responses);
+
+        if (timeToFirstByte != null)
+        {
+            timeToFirstByte.close();
+        }
+    }
+
+    static RouteCounters newRouteCounters(
+        Counters counters,
+        String label,
+        int histogramSubBucketBits)
+    {
+        final AtomicCounter[] allocated = counters.newCounters(label, COUNTER_NAMES);
+        if (allocated == null)
+        {
+            return null;
+        }
+
+        return new RouteCounters(counters, allocated, Histogram.newHistogram(counters, label + ".ttfb", histogramSubBucketBits));
+    }
+}
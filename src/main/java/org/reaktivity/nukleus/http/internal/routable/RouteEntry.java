@@ -0,0 +1,92 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.routable;
+
+import java.util.Map;
+
+import org.reaktivity.nukleus.http.internal.types.control.Role;
+import org.reaktivity.nukleus.http.internal.types.control.State;
+
+public final class RouteEntry
+{
+    private final Role role;
+    private final State state;
+    private final String source;
+    private final long sourceRef;
+    private final String target;
+    private final long targetRef;
+    private final Map<String, String> headers;
+
+    public RouteEntry(
+        Role role,
+        State state,
+        String source,
+        long sourceRef,
+        String target,
+        long targetRef,
+        Map<String, String> headers)
+    {
+        this.role = role;
+        this.state = state;
+        this.source = source;
+        this.sourceRef = sourceRef;
+        this.target = target;
+        this.targetRef = targetRef;
+        this.headers = headers;
+    }
+
+    public Role role()
+    {
+        return role;
+    }
+
+    public State state()
+    {
+        return state;
+    }
+
+    public String source()
+    {
+        return source;
+    }
+
+    public long sourceRef()
+    {
+        return sourceRef;
+    }
+
+    public String target()
+    {
+        return target;
+    }
+
+    public long targetRef()
+    {
+        return targetRef;
+    }
+
+    public Map<String, String> headers()
+    {
+        return headers;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("[role=%s, state=%s, source=\"%s\", sourceRef=%d, target=\"%s\", targetRef=%d, headers=%s]",
+                role, state, source, sourceRef, target, targetRef, headers);
+    }
+}
@@ -0,0 +1,167 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.routable;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.unmodifiableList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import org.agrona.collections.Long2ObjectHashMap;
+import org.reaktivity.nukleus.http.internal.util.PersistentLong2ObjectMap;
+
+/**
+ * Immutable version of the routes for a {@link Routable}, replaced on each route change by a new version
+ * that shares the routes of every unchanged source reference with this one.
+ * <p>
+ * Tracks the number of request streams, and their pending responses, that resolve against this version,
+ * so the counters of routes removed since can be kept until no stream still pinned to a retired version
+ * can update them. Pins are released from whichever worker handles the response, so the count is atomic.
+ */
+public final class RouteTable
+{
+    private static final List<Route> EMPTY_ROUTES = emptyList();
+    private static final int RETIRED = Integer.MIN_VALUE;
+
+    private static final AtomicIntegerFieldUpdater<RouteTable> STATE_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(RouteTable.class, "state");
+
+    private final long version;
+    private final PersistentLong2ObjectMap<List<Route>> routesByRef;
+
+    private volatile int state;
+
+    private RouteTable(
+        long version,
+        PersistentLong2ObjectMap<List<Route>> routesByRef)
+    {
+        this.version = version;
+        this.routesByRef = routesByRef;
+    }
+
+    static RouteTable empty()
+    {
+        return new RouteTable(0L, PersistentLong2ObjectMap.empty());
+    }
+
+    public long version()
+    {
+        return version;
+    }
+
+    public List<Route> routes(
+        long sourceRef)
+    {
+        final List<Route> routes = routesByRef.get(sourceRef);
+        return routes != null ? routes : EMPTY_ROUTES;
+    }
+
+    public boolean isEmpty()
+    {
+        return routesByRef.isEmpty();
+    }
+
+    public void forEach(
+        Consumer<Route> action)
+    {
+        routesByRef.forEach(routes -> routes.forEach(action));
+    }
+
+    public int streams()
+    {
+        return state & ~RETIRED;
+    }
+
+    public boolean isRetired()
+    {
+        return (state & RETIRED) != 0;
+    }
+
+    RouteTable withRoutes(
+        List<Route> newRoutes)
+    {
+        final Long2ObjectHashMap<List<Route>> changedRoutesByRef = new Long2ObjectHashMap<>();
+
+        for (Route newRoute : newRoutes)
+        {
+            final long sourceRef = newRoute.sourceRef();
+            List<Route> routes = changedRoutesByRef.get(sourceRef);
+            if (routes == null)
+            {
+                routes = new ArrayList<>(routes(sourceRef));
+                changedRoutesByRef.put(sourceRef, routes);
+            }
+            routes.add(newRoute);
+        }
+
+        return withChangedRoutes(changedRoutesByRef);
+    }
+
+    RouteTable withChangedRoutes(
+        Long2ObjectHashMap<List<Route>> changedRoutesByRef)
+    {
+        PersistentLong2ObjectMap<List<Route>> newRoutesByRef = routesByRef;
+        for (Map.Entry<Long, List<Route>> entry : changedRoutesByRef.entrySet())
+        {
+            final long sourceRef = entry.getKey();
+            final List<Route> routes = entry.getValue();
+            newRoutesByRef = routes.isEmpty()
+                    ? newRoutesByRef.without(sourceRef)
+                    : newRoutesByRef.with(sourceRef, unmodifiableList(routes));
+        }
+
+        return new RouteTable(version + 1, newRoutesByRef);
+    }
+
+    RouteTable withoutRoutes(
+        long sourceRef,
+        Predicate<Route> filter)
+    {
+        final List<Route> routes = routes(sourceRef);
+        final List<Route> newRoutes = new ArrayList<>(routes);
+
+        if (!newRoutes.removeIf(filter))
+        {
+            return this;
+        }
+
+        final PersistentLong2ObjectMap<List<Route>> newRoutesByRef = newRoutes.isEmpty()
+                ? routesByRef.without(sourceRef)
+                : routesByRef.with(sourceRef, unmodifiableList(newRoutes));
+
+        return new RouteTable(version + 1, newRoutesByRef);
+    }
+
+    boolean pin()
+    {
+        return (STATE_UPDATER.incrementAndGet(this) & RETIRED) != 0;
+    }
+
+    boolean unpin()
+    {
+        return (STATE_UPDATER.getAndDecrement(this) & RETIRED) != 0;
+    }
+
+    int retire()
+    {
+        return STATE_UPDATER.getAndAdd(this, RETIRED);
+    }
+}
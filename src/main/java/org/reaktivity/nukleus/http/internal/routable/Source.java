@@ -17,20 +17,26 @@ package org.reaktivity.nukleus.http.internal.routable;
 
 import java.util.EnumMap;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.LongFunction;
 import java.util.function.LongSupplier;
 import java.util.function.Supplier;
 
+import org.agrona.DirectBuffer;
 import org.agrona.MutableDirectBuffer;
+import org.agrona.collections.Long2LongHashMap;
 import org.agrona.collections.Long2ObjectHashMap;
+import org.agrona.collections.LongLongConsumer;
 import org.agrona.concurrent.AtomicBuffer;
 import org.agrona.concurrent.MessageHandler;
+import org.agrona.concurrent.NanoClock;
 import org.agrona.concurrent.ringbuffer.RingBuffer;
 import org.reaktivity.nukleus.Nukleus;
 import org.reaktivity.nukleus.http.internal.layouts.StreamsLayout;
 import org.reaktivity.nukleus.http.internal.routable.stream.SourceInputStreamFactory;
 import org.reaktivity.nukleus.http.internal.routable.stream.SourceOutputStreamFactory;
+import org.reaktivity.nukleus.http.internal.routable.stream.Stream;
 import org.reaktivity.nukleus.http.internal.routable.stream.TargetInputEstablishedStreamFactory;
 import org.reaktivity.nukleus.http.internal.routable.stream.TargetOutputEstablishedStreamFactory;
 import org.reaktivity.nukleus.http.internal.router.RouteKind;
@@ -38,7 +44,11 @@ import org.reaktivity.nukleus.http.internal.types.stream.BeginFW;
 import org.reaktivity.nukleus.http.internal.types.stream.FrameFW;
 import org.reaktivity.nukleus.http.internal.types.stream.ResetFW;
 import org.reaktivity.nukleus.http.internal.types.stream.WindowFW;
+import org.reaktivity.nukleus.http.internal.util.FrameTracer;
+import org.reaktivity.nukleus.http.internal.util.Histogram;
+import org.reaktivity.nukleus.http.internal.util.OverflowQueue;
 import org.reaktivity.nukleus.http.internal.util.function.LongObjectBiConsumer;
+import org.reaktivity.nukleus.http.internal.util.function.MessageWriter;
 
 public final class Source implements Nukleus
 {
@@ -54,9 +64,24 @@ public final class Source implements Nukleus
     private final AtomicBuffer writeBuffer;
     private final RingBuffer streamsBuffer;
     private final RingBuffer throttleBuffer;
-    private final Long2ObjectHashMap<MessageHandler> streams;
-
-    private final EnumMap<RouteKind, Supplier<MessageHandler>> streamFactories;
+    private final MessageWriter writeThrottle;
+    private final OverflowQueue throttleOverflow;
+    private final Long2ObjectHashMap<Stream> streams;
+    private final Long2ObjectHashMap<RouteTable> routeTablesByStreamId;
+    private final Supplier<RouteTable> pinRouteTable;
+    private final Consumer<RouteTable> unpinRouteTable;
+    private final MessageHandler handleRead = this::handleRead;
+    private final int readBudget;
+    private final Long2LongHashMap pendingWindows;
+    private final Long2LongHashMap retryWindows;
+    private final LongLongConsumer writeWindow = this::writeWindow;
+    private final int windowThreshold;
+    private final FrameTracer tracer;
+
+    private int readCount;
+
+    private final SourceInputStreamFactory inputStreamFactory;
+    private final EnumMap<RouteKind, Supplier<Stream>> streamFactories;
     private final LongFunction<Correlation> lookupEstablished;
 
     Source(
@@ -64,45 +89,88 @@ public final class Source implements Nukleus
         String partitionName,
         StreamsLayout layout,
         AtomicBuffer writeBuffer,
+        OverflowQueue throttleOverflow,
         LongFunction<List<Route>> supplyRoutes,
+        Supplier<RouteTable> pinRouteTable,
+        Consumer<RouteTable> retainRouteTable,
+        Consumer<RouteTable> unpinRouteTable,
         LongSupplier supplyTargetId,
         Function<String, Target> supplyTarget,
         LongObjectBiConsumer<Correlation> correlateNew,
         LongFunction<Correlation> correlateEstablished,
-        LongFunction<Correlation> lookupEstablished)
+        LongFunction<Correlation> lookupEstablished,
+        Histogram decodeTimes,
+        boolean routeCounters,
+        NanoClock nanoClock,
+        FrameTracer tracer,
+        int streamPoolCapacity,
+        int readBudget,
+        int windowThreshold)
     {
         this.sourceName = sourceName;
         this.partitionName = partitionName;
         this.layout = layout;
         this.writeBuffer = writeBuffer;
+        this.throttleOverflow = throttleOverflow;
 
         this.streamsBuffer = layout.streamsBuffer();
         this.throttleBuffer = layout.throttleBuffer();
+        this.writeThrottle = throttleBuffer::write;
         this.streams = new Long2ObjectHashMap<>();
+        this.routeTablesByStreamId = new Long2ObjectHashMap<>();
+        this.pinRouteTable = pinRouteTable;
+        this.unpinRouteTable = unpinRouteTable;
 
         Target rejectTarget = supplyTarget.apply(sourceName);
+        this.inputStreamFactory = new SourceInputStreamFactory(this, supplyTargetId, rejectTarget, correlateNew,
+                retainRouteTable, unpinRouteTable, decodeTimes, routeCounters, nanoClock, streamPoolCapacity);
         this.streamFactories = new EnumMap<>(RouteKind.class);
-        this.streamFactories.put(RouteKind.INPUT,
-                new SourceInputStreamFactory(this, supplyRoutes, supplyTargetId, rejectTarget, correlateNew)::newStream);
         this.streamFactories.put(RouteKind.OUTPUT_ESTABLISHED,
-                new TargetOutputEstablishedStreamFactory(this, supplyTarget, supplyTargetId, correlateEstablished)::newStream);
+                new TargetOutputEstablishedStreamFactory(this, supplyTarget, supplyTargetId, correlateEstablished,
+                        nanoClock, streamPoolCapacity)::newStream);
         this.streamFactories.put(RouteKind.OUTPUT,
-                new SourceOutputStreamFactory(this, supplyRoutes, supplyTargetId, correlateNew)::newStream);
+                new SourceOutputStreamFactory(this, supplyRoutes, supplyTargetId, correlateNew,
+                        streamPoolCapacity)::newStream);
         this.streamFactories.put(RouteKind.INPUT_ESTABLISHED,
                 new TargetInputEstablishedStreamFactory(this, supplyRoutes, supplyTargetId, correlateEstablished)::newStream);
 
         this.lookupEstablished = lookupEstablished;
+        this.readBudget = readBudget;
+        this.pendingWindows = new Long2LongHashMap(0L);
+        this.retryWindows = new Long2LongHashMap(0L);
+        this.windowThreshold = windowThreshold;
+        this.tracer = tracer;
     }
 
     @Override
     public int process()
     {
-        return streamsBuffer.read(this::handleRead);
+        int workCount = 0;
+
+        if (!throttleOverflow.isEmpty())
+        {
+            workCount += throttleOverflow.drainTo(writeThrottle);
+        }
+
+        readCount = streamsBuffer.read(handleRead, readBudget);
+
+        return workCount + readCount;
+    }
+
+    public boolean isPreempted()
+    {
+        return readCount >= readBudget;
     }
 
     @Override
     public void close() throws Exception
     {
+        streams.values().forEach(Stream::abort);
+        streams.clear();
+
+        routeTablesByStreamId.values().forEach(unpinRouteTable);
+        routeTablesByStreamId.clear();
+
         layout.close();
     }
 
@@ -129,12 +197,17 @@ public final class Source implements Nukleus
         int index,
         int length)
     {
+        if (tracer != null)
+        {
+            tracer.trace(FrameTracer.CHANNEL_SOURCE_STREAMS, msgTypeId, buffer, index, length);
+        }
+
         frameRO.wrap(buffer, index, index + length);
 
         final long streamId = frameRO.streamId();
 
         // TODO: use Long2ObjectHashMap.getOrDefault(long, this::handleUnrecognized)
-        final MessageHandler handler = streams.get(streamId);
+        final Stream handler = streams.get(streamId);
 
         if (handler != null)
         {
@@ -180,8 +253,18 @@ public final class Source implements Nukleus
         RouteKind routeKind = resolve(sourceRef, correlationId);
         if (routeKind != null)
         {
-            final Supplier<MessageHandler> streamFactory = streamFactories.get(routeKind);
-            final MessageHandler newStream = streamFactory.get();
+            final Stream newStream;
+            if (routeKind == RouteKind.INPUT)
+            {
+                final RouteTable pinned = pinRouteTable.get();
+                newStream = inputStreamFactory.newStream(pinned);
+                routeTablesByStreamId.put(sourceId, pinned);
+            }
+            else
+            {
+                final Supplier<Stream> streamFactory = streamFactories.get(routeKind);
+                newStream = streamFactory.get();
+            }
             streams.put(sourceId, newStream);
             newStream.onMessage(msgTypeId, buffer, index, length);
         }
@@ -194,26 +277,126 @@ public final class Source implements Nukleus
     public void doWindow(
         final long streamId,
         final int update)
+    {
+        final long pending = pendingWindows.get(streamId) + update;
+
+        if (pending >= windowThreshold)
+        {
+            pendingWindows.remove(streamId);
+            writeWindow(streamId, pending);
+        }
+        else
+        {
+            pendingWindows.put(streamId, pending);
+        }
+    }
+
+    public void flushWindows()
+    {
+        if (!retryWindows.isEmpty())
+        {
+            retryWindows.longForEach(this::deferWindow);
+            retryWindows.clear();
+        }
+
+        if (!pendingWindows.isEmpty())
+        {
+            pendingWindows.longForEach(writeWindow);
+            pendingWindows.clear();
+        }
+    }
+
+    private void writeWindow(
+        final long streamId,
+        final long update)
     {
         final WindowFW window = windowRW.wrap(writeBuffer, 0, writeBuffer.capacity())
-                .streamId(streamId).update(update).build();
+                .streamId(streamId).update((int) update).build();
 
-        throttleBuffer.write(window.typeId(), window.buffer(), window.offset(), window.length());
+        if (!writeThrottle(window.typeId(), window.buffer(), window.offset(), window.length()))
+        {
+            // credit must not be lost, retried on the next flush
+            retryWindows.put(streamId, retryWindows.get(streamId) + update);
+        }
+    }
+
+    private void deferWindow(
+        final long streamId,
+        final long update)
+    {
+        pendingWindows.put(streamId, pendingWindows.get(streamId) + update);
     }
 
     public void doReset(
         final long streamId)
     {
+        pendingWindows.remove(streamId);
+        retryWindows.remove(streamId);
+
         final ResetFW reset = resetRW.wrap(writeBuffer, 0, writeBuffer.capacity())
                 .streamId(streamId).build();
 
-        throttleBuffer.write(reset.typeId(), reset.buffer(), reset.offset(), reset.length());
+        if (!writeThrottle(reset.typeId(), reset.buffer(), reset.offset(), reset.length()))
+        {
+            abortStream(streamId);
+        }
+    }
+
+    private void abortStream(
+        final long streamId)
+    {
+        // the peer is reset again when its next frame arrives for the now unknown stream
+        final Stream stream = streams.get(streamId);
+        if (stream != null)
+        {
+            removeStream(streamId);
+            stream.abort();
+        }
+    }
+
+    private boolean writeThrottle(
+        int msgTypeId,
+        DirectBuffer buffer,
+        int index,
+        int length)
+    {
+        if (tracer != null)
+        {
+            tracer.trace(FrameTracer.CHANNEL_SOURCE_THROTTLE, msgTypeId, buffer, index, length);
+        }
+
+        return throttleOverflow.write(writeThrottle, msgTypeId, buffer, index, length);
+    }
+
+    Long2ObjectHashMap<Stream>.KeyIterator streamIds()
+    {
+        return streams.keySet().iterator();
+    }
+
+    void describeStream(
+        long streamId,
+        List<StreamEntry> entries)
+    {
+        final Stream stream = streams.get(streamId);
+        if (stream != null)
+        {
+            final Target target = stream.target();
+            final String targetName = target != null ? target.name() : "";
+            entries.add(new StreamEntry(StreamEntry.KIND_STREAM, partitionName, streamId, targetName,
+                                        stream.targetId(), stream.window(), stream.state()));
+        }
     }
 
     public void removeStream(
         long streamId)
     {
         streams.remove(streamId);
+
+        final RouteTable pinned = routeTablesByStreamId.remove(streamId);
+        if (pinned != null)
+        {
+            unpinRouteTable.accept(pinned);
+        }
     }
 
     private RouteKind resolve(
@@ -0,0 +1,114 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.routable;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.agrona.concurrent.NanoClock;
+import org.agrona.concurrent.status.AtomicCounter;
+import org.reaktivity.nukleus.http.internal.Counters;
+
+/**
+ * Flow-control stall counters for a single {@link Target}, aggregated over all streams written to that target.
+ * <p>
+ * A stream is stalled while it has no window left to write to the target. Stalls longer than the threshold
+ * are logged, at most once per sample interval, together with the number of long stalls since the last event.
+ */
+public final class StallCounters implements AutoCloseable
+{
+    private static final long SAMPLE_INTERVAL_NANOS = SECONDS.toNanos(1L);
+    private static final String[] COUNTER_NAMES = { "streams", "stalls", "nanos" };
+
+    private final Counters counters;
+    private final String label;
+    private final AtomicCounter streams;
+    private final AtomicCounter stalls;
+    private final AtomicCounter nanos;
+    private final long thresholdNanos;
+    private final Logger logger;
+
+    private long sampledAt;
+    private int unsampled;
+
+    private StallCounters(
+        Counters counters,
+        String label,
+        AtomicCounter[] allocated,
+        long thresholdNanos,
+        Logger logger,
+        long createdAt)
+    {
+        this.counters = counters;
+        this.label = label;
+        this.streams = allocated[0];
+        this.stalls = allocated[1];
+        this.nanos = allocated[2];
+        this.thresholdNanos = thresholdNanos;
+        this.logger = logger;
+        this.sampledAt = createdAt - SAMPLE_INTERVAL_NANOS;
+    }
+
+    public void onStall()
+    {
+        streams.addOrdered(1L);
+        stalls.addOrdered(1L);
+    }
+
+    public void onResume(
+        long stalledNanos,
+        long resumeAt)
+    {
+        streams.addOrdered(-1L);
+        nanos.addOrdered(stalledNanos);
+
+        if (thresholdNanos != 0L && stalledNanos >= thresholdNanos)
+        {
+            unsampled++;
+
+            if (resumeAt - sampledAt >= SAMPLE_INTERVAL_NANOS)
+            {
+                logger.log(Level.INFO, String.format("%s stalled for %dms (%d stalls over threshold since last event)",
+                        label, NANOSECONDS.toMillis(stalledNanos), unsampled));
+                sampledAt = resumeAt;
+                unsampled = 0;
+            }
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        counters.freeCounters(streams, stalls, nanos);
+    }
+
+    static StallCounters newStallCounters(
+        Counters counters,
+        String label,
+        long thresholdNanos,
+        Logger logger,
+        NanoClock nanoClock)
+    {
+        // null when the counters buffer is full, stalls are not counted
+        final AtomicCounter[] allocated = counters.newCounters(label, COUNTER_NAMES);
+        return allocated != null
+                ? new StallCounters(counters, label, allocated, thresholdNanos, logger, nanoClock.nanoTime())
+                : null;
+    }
+}
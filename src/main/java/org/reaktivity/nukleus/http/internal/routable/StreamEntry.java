@@ -0,0 +1,90 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.routable;
+
+public final class StreamEntry
+{
+    public static final String KIND_STREAM = "stream";
+    public static final String KIND_THROTTLE = "throttle";
+
+    private final String kind;
+    private final String owner;
+    private final long streamId;
+    private final String target;
+    private final long targetId;
+    private final int window;
+    private final String state;
+
+    public StreamEntry(
+        String kind,
+        String owner,
+        long streamId,
+        String target,
+        long targetId,
+        int window,
+        String state)
+    {
+        this.kind = kind;
+        this.owner = owner;
+        this.streamId = streamId;
+        this.target = target;
+        this.targetId = targetId;
+        this.window = window;
+        this.state = state;
+    }
+
+    public String kind()
+    {
+        return kind;
+    }
+
+    public String owner()
+    {
+        return owner;
+    }
+
+    public long streamId()
+    {
+        return streamId;
+    }
+
+    public String target()
+    {
+        return target;
+    }
+
+    public long targetId()
+    {
+        return targetId;
+    }
+
+    public int window()
+    {
+        return window;
+    }
+
+    public String state()
+    {
+        return state;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("[kind=%s, owner=\"%s\", streamId=%016x, target=\"%s\", targetId=%016x, window=%d, state=%s]",
+                kind, owner, streamId, target, targetId, window, state);
+    }
+}
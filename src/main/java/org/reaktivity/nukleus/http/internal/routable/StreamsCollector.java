@@ -0,0 +1,116 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.routable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+
+import org.agrona.collections.Long2ObjectHashMap;
+import org.agrona.concurrent.MessageHandler;
+import org.reaktivity.nukleus.http.internal.routable.stream.Stream;
+
+/**
+ * Collects the streams and throttles of a set of {@link Routable}s a page at a time, resuming where the
+ * previous page stopped, so listing many streams does not hold up the agent for a whole pass.
+ * <p>
+ * Collection is weakly consistent: streams opened or closed between pages may or may not be listed.
+ */
+public final class StreamsCollector
+{
+    private final Deque<Routable> routables;
+    private final Deque<Source> sources;
+    private final Deque<Target> targets;
+    private final List<StreamEntry> entries;
+
+    private Source source;
+    private Long2ObjectHashMap<Stream>.KeyIterator streamIds;
+    private Target target;
+    private Long2ObjectHashMap<MessageHandler>.KeyIterator throttleIds;
+
+    public StreamsCollector(
+        Collection<Routable> routables)
+    {
+        this.routables = new ArrayDeque<>(routables);
+        this.sources = new ArrayDeque<>();
+        this.targets = new ArrayDeque<>();
+        this.entries = new ArrayList<>();
+    }
+
+    public List<StreamEntry> entries()
+    {
+        return entries;
+    }
+
+    public boolean isComplete()
+    {
+        return streamIds == null && throttleIds == null &&
+               sources.isEmpty() && targets.isEmpty() && routables.isEmpty();
+    }
+
+    public int collect(
+        int limit)
+    {
+        int workCount = 0;
+
+        while (workCount < limit && !isComplete())
+        {
+            if (streamIds != null && streamIds.hasNext())
+            {
+                source.describeStream(streamIds.nextLong(), entries);
+            }
+            else if (throttleIds != null && throttleIds.hasNext())
+            {
+                target.describeThrottle(throttleIds.nextLong(), entries);
+            }
+            else
+            {
+                advance();
+            }
+
+            workCount++;
+        }
+
+        return workCount;
+    }
+
+    private void advance()
+    {
+        source = null;
+        streamIds = null;
+        target = null;
+        throttleIds = null;
+
+        if (!sources.isEmpty())
+        {
+            source = sources.removeFirst();
+            streamIds = source.streamIds();
+        }
+        else if (!targets.isEmpty())
+        {
+            target = targets.removeFirst();
+            throttleIds = target.throttleIds();
+        }
+        else if (!routables.isEmpty())
+        {
+            final Routable routable = routables.removeFirst();
+            sources.addAll(routable.sources());
+            targets.addAll(routable.targets());
+        }
+    }
+}
@@ -15,13 +15,17 @@
  */
 package org.reaktivity.nukleus.http.internal.routable;
 
+import java.util.List;
 import java.util.function.Consumer;
 
 import org.agrona.DirectBuffer;
 import org.agrona.MutableDirectBuffer;
 import org.agrona.collections.Long2ObjectHashMap;
+import org.agrona.collections.LongHashSet;
 import org.agrona.concurrent.AtomicBuffer;
 import org.agrona.concurrent.MessageHandler;
+import org.agrona.concurrent.NanoClock;
+import org.agrona.concurrent.UnsafeBuffer;
 import org.agrona.concurrent.ringbuffer.RingBuffer;
 import org.reaktivity.nukleus.Nukleus;
 import org.reaktivity.nukleus.http.internal.layouts.StreamsLayout;
@@ -34,48 +38,128 @@ import org.reaktivity.nukleus.http.internal.types.stream.DataFW;
 import org.reaktivity.nukleus.http.internal.types.stream.EndFW;
 import org.reaktivity.nukleus.http.internal.types.stream.FrameFW;
 import org.reaktivity.nukleus.http.internal.types.stream.HttpBeginExFW;
+import org.reaktivity.nukleus.http.internal.types.stream.ResetFW;
+import org.reaktivity.nukleus.http.internal.util.FrameTracer;
+import org.reaktivity.nukleus.http.internal.util.OverflowQueue;
+import org.reaktivity.nukleus.http.internal.util.RingBufferClaim;
 
 public final class Target implements Nukleus
 {
+    // streamId, payload and extension length prefixes, with headroom
+    private static final int DATA_FRAME_OVERHEAD = 32;
+
+    // streamId and extension length prefix, with headroom
+    private static final int CONTROL_FRAME_LENGTH = 32;
+
     private final FrameFW frameRO = new FrameFW();
 
     private final BeginFW.Builder beginRW = new BeginFW.Builder();
     private final DataFW.Builder dataRW = new DataFW.Builder();
     private final EndFW.Builder endRW = new EndFW.Builder();
+    private final ResetFW.Builder resetRW = new ResetFW.Builder();
 
     private final HttpBeginExFW.Builder httpBeginExRW = new HttpBeginExFW.Builder();
 
+    private final Consumer<OctetsFW.Builder> setPayloadBytes = this::setPayloadBytes;
+    private final Consumer<OctetsFW.Builder> setPayloadOctets = this::setPayloadOctets;
+    private final Consumer<OctetsFW.Builder> setHttpBeginEx = this::setHttpBeginEx;
+    private final Consumer<OctetsFW.Builder> resetExtension = OctetsFW.Builder::reset;
+    private final Flyweight.Builder.Visitor visitHttpBeginEx = this::visitHttpBeginEx;
+
     private final String name;
     private final StreamsLayout layout;
     private final AtomicBuffer writeBuffer;
+    private final AtomicBuffer abortBuffer;
 
-    private final RingBuffer streamsBuffer;
+    private final RingBufferClaim streamsClaim;
+    private final OverflowQueue streamsOverflow;
     private final RingBuffer throttleBuffer;
     private final Long2ObjectHashMap<MessageHandler> throttles;
+    private final LongHashSet abortedStreamIds;
+    private final MessageHandler handleRead = this::handleRead;
+    private final int readBudget;
+    private final StallCounters stalls;
+    private final NanoClock nanoClock;
+    private final FrameTracer tracer;
+
+    private int claimLimit;
+    private int readCount;
+
+    private DirectBuffer payloadBuffer;
+    private int payloadOffset;
+    private int payloadLength;
+    private OctetsFW payloadOctets;
+    private Consumer<ListFW.Builder<HttpHeaderFW.Builder, HttpHeaderFW>> httpHeaders;
 
     public Target(
         String name,
         StreamsLayout layout,
-        AtomicBuffer writeBuffer)
+        AtomicBuffer writeBuffer,
+        OverflowQueue streamsOverflow,
+        int readBudget,
+        boolean batching,
+        StallCounters stalls,
+        NanoClock nanoClock,
+        FrameTracer tracer)
     {
         this.name = name;
         this.layout = layout;
         this.writeBuffer = writeBuffer;
-        this.streamsBuffer = layout.streamsBuffer();
+        this.abortBuffer = new UnsafeBuffer(new byte[CONTROL_FRAME_LENGTH]);
+        this.streamsClaim = new RingBufferClaim(layout.streamsBuffer(), batching);
+        this.streamsOverflow = streamsOverflow;
         this.throttleBuffer = layout.throttleBuffer();
         this.throttles = new Long2ObjectHashMap<>();
+        this.abortedStreamIds = new LongHashSet(0L);
+        this.readBudget = readBudget;
+        this.stalls = stalls;
+        this.nanoClock = nanoClock;
+        this.tracer = tracer;
     }
 
     @Override
     public int process()
     {
-        return throttleBuffer.read(this::handleRead);
+        int workCount = 0;
+
+        readCount = 0;
+
+        if (!streamsOverflow.isEmpty())
+        {
+            workCount += streamsOverflow.drainTo(streamsClaim);
+
+            if (streamsOverflow.isAboveHighWaterMark())
+            {
+                // withhold WINDOW updates from sources until the target catches up
+                return workCount;
+            }
+        }
+
+        readCount = throttleBuffer.read(handleRead, readBudget);
+
+        return workCount + readCount;
+    }
+
+    public boolean isPreempted()
+    {
+        return readCount >= readBudget;
+    }
+
+    public int flush()
+    {
+        return streamsClaim.flush();
     }
 
     @Override
     public void close() throws Exception
     {
+        streamsClaim.flush();
         layout.close();
+
+        if (stalls != null)
+        {
+            stalls.close();
+        }
     }
 
     @Override
@@ -101,6 +185,42 @@ public final class Target implements Nukleus
         long streamId)
     {
         throttles.remove(streamId);
+        abortedStreamIds.remove(streamId);
+    }
+
+    Long2ObjectHashMap<MessageHandler>.KeyIterator throttleIds()
+    {
+        return throttles.keySet().iterator();
+    }
+
+    void describeThrottle(
+        long streamId,
+        List<StreamEntry> entries)
+    {
+        if (throttles.containsKey(streamId))
+        {
+            entries.add(new StreamEntry(StreamEntry.KIND_THROTTLE, name, streamId, "", 0L, 0, "open"));
+        }
+    }
+
+    public long onStall()
+    {
+        if (stalls != null)
+        {
+            stalls.onStall();
+        }
+
+        return nanoClock.nanoTime();
+    }
+
+    public void onResume(
+        long stallAt)
+    {
+        if (stalls != null)
+        {
+            final long resumeAt = nanoClock.nanoTime();
+            stalls.onResume(resumeAt - stallAt, resumeAt);
+        }
     }
 
     private void handleRead(
@@ -109,6 +229,11 @@ public final class Target implements Nukleus
         int index,
         int length)
     {
+        if (tracer != null)
+        {
+            tracer.trace(FrameTracer.CHANNEL_TARGET_THROTTLE, msgTypeId, buffer, index, length);
+        }
+
         frameRO.wrap(buffer, index, index + length);
 
         final long streamId = frameRO.streamId();
@@ -129,10 +254,10 @@ public final class Target implements Nukleus
                 .streamId(targetId)
                 .referenceId(targetRef)
                 .correlationId(correlationId)
-                .extension(e -> e.reset())
+                .extension(resetExtension)
                 .build();
 
-        streamsBuffer.write(begin.typeId(), begin.buffer(), begin.offset(), begin.length());
+        writeStreams(begin.typeId(), begin.buffer(), begin.offset(), begin.length());
     }
 
     public int doData(
@@ -141,13 +266,26 @@ public final class Target implements Nukleus
         int offset,
         int length)
     {
-        DataFW data = dataRW.wrap(writeBuffer, 0, writeBuffer.capacity())
+        if (isAborted(targetId))
+        {
+            return 0;
+        }
+
+        this.payloadBuffer = payload;
+        this.payloadOffset = offset;
+        this.payloadLength = length;
+
+        final int index = claimData(length);
+        final MutableDirectBuffer buffer = index != -1 ? streamsClaim.buffer() : writeBuffer;
+        final int claimIndex = index != -1 ? index : 0;
+
+        DataFW data = dataRW.wrap(buffer, claimIndex, claimIndex + claimLimit)
                 .streamId(targetId)
-                .payload(p -> p.set(payload, offset, length))
-                .extension(e -> e.reset())
+                .payload(setPayloadBytes)
+                .extension(resetExtension)
                 .build();
 
-        streamsBuffer.write(data.typeId(), data.buffer(), data.offset(), data.length());
+        commitData(index, data);
 
         return data.length();
     }
@@ -156,13 +294,24 @@ public final class Target implements Nukleus
         long targetId,
         OctetsFW payload)
     {
-        DataFW data = dataRW.wrap(writeBuffer, 0, writeBuffer.capacity())
+        if (isAborted(targetId))
+        {
+            return 0;
+        }
+
+        this.payloadOctets = payload;
+
+        final int index = claimData(payload.length());
+        final MutableDirectBuffer buffer = index != -1 ? streamsClaim.buffer() : writeBuffer;
+        final int claimIndex = index != -1 ? index : 0;
+
+        DataFW data = dataRW.wrap(buffer, claimIndex, claimIndex + claimLimit)
                 .streamId(targetId)
-                .payload(p -> p.set(payload))
-                .extension(e -> e.reset())
+                .payload(setPayloadOctets)
+                .extension(resetExtension)
                 .build();
 
-        streamsBuffer.write(data.typeId(), data.buffer(), data.offset(), data.length());
+        commitData(index, data);
 
         return data.length();
     }
@@ -170,12 +319,17 @@ public final class Target implements Nukleus
     public void doEnd(
         long targetId)
     {
+        if (isAborted(targetId))
+        {
+            return;
+        }
+
         EndFW end = endRW.wrap(writeBuffer, 0, writeBuffer.capacity())
                 .streamId(targetId)
-                .extension(e -> e.reset())
+                .extension(resetExtension)
                 .build();
 
-        streamsBuffer.write(end.typeId(), end.buffer(), end.offset(), end.length());
+        writeStreams(end.typeId(), end.buffer(), end.offset(), end.length());
     }
 
     public void doHttpBegin(
@@ -184,14 +338,16 @@ public final class Target implements Nukleus
         long correlationId,
         Consumer<ListFW.Builder<HttpHeaderFW.Builder, HttpHeaderFW>> mutator)
     {
+        this.httpHeaders = mutator;
+
         BeginFW begin = beginRW.wrap(writeBuffer, 0, writeBuffer.capacity())
                 .streamId(targetId)
                 .referenceId(targetRef)
                 .correlationId(correlationId)
-                .extension(e -> e.set(visitHttpBeginEx(mutator)))
+                .extension(setHttpBeginEx)
                 .build();
 
-        streamsBuffer.write(begin.typeId(), begin.buffer(), begin.offset(), begin.length());
+        writeStreams(begin.typeId(), begin.buffer(), begin.offset(), begin.length());
     }
 
     public void doHttpData(
@@ -200,33 +356,140 @@ public final class Target implements Nukleus
         int offset,
         int length)
     {
-        DataFW data = dataRW.wrap(writeBuffer, 0, writeBuffer.capacity())
+        if (isAborted(targetId))
+        {
+            return;
+        }
+
+        this.payloadBuffer = payload;
+        this.payloadOffset = offset;
+        this.payloadLength = length;
+
+        final int index = claimData(length);
+        final MutableDirectBuffer buffer = index != -1 ? streamsClaim.buffer() : writeBuffer;
+        final int claimIndex = index != -1 ? index : 0;
+
+        DataFW data = dataRW.wrap(buffer, claimIndex, claimIndex + claimLimit)
                 .streamId(targetId)
-                .payload(p -> p.set(payload, offset, length))
-                .extension(e -> e.reset())
+                .payload(setPayloadBytes)
+                .extension(resetExtension)
                 .build();
 
-        streamsBuffer.write(data.typeId(), data.buffer(), data.offset(), data.length());
+        commitData(index, data);
     }
 
     public void doHttpEnd(
         long targetId)
     {
+        if (isAborted(targetId))
+        {
+            return;
+        }
+
         EndFW end = endRW.wrap(writeBuffer, 0, writeBuffer.capacity())
                 .streamId(targetId)
-                .extension(e -> e.reset())
+                .extension(resetExtension)
                 .build();
 
-        streamsBuffer.write(end.typeId(), end.buffer(), end.offset(), end.length());
+        writeStreams(end.typeId(), end.buffer(), end.offset(), end.length());
+    }
+
+    private int claimData(
+        int payloadLength)
+    {
+        claimLimit = Math.min(payloadLength + DATA_FRAME_OVERHEAD, streamsClaim.maxMsgLength());
+        return streamsOverflow.isEmpty() ? streamsClaim.tryClaim(claimLimit) : -1;
+    }
+
+    private void commitData(
+        int index,
+        DataFW data)
+    {
+        if (tracer != null)
+        {
+            tracer.trace(FrameTracer.CHANNEL_TARGET_STREAMS, data.typeId(), data.buffer(), data.offset(), data.length());
+        }
+
+        if (index != -1)
+        {
+            streamsClaim.commit(data.typeId(), data.length());
+        }
+        else if (!streamsOverflow.offer(data.typeId(), data.buffer(), data.offset(), data.length()))
+        {
+            abort(data.streamId());
+        }
     }
 
-    private Flyweight.Builder.Visitor visitHttpBeginEx(
-        Consumer<ListFW.Builder<HttpHeaderFW.Builder, HttpHeaderFW>> headers)
+    private void writeStreams(
+        int msgTypeId,
+        DirectBuffer buffer,
+        int index,
+        int length)
+    {
+        if (tracer != null)
+        {
+            tracer.trace(FrameTracer.CHANNEL_TARGET_STREAMS, msgTypeId, buffer, index, length);
+        }
+
+        if (!streamsOverflow.write(streamsClaim, msgTypeId, buffer, index, length))
+        {
+            abort(frameRO.wrap(buffer, index, index + length).streamId());
+        }
+    }
+
+    private boolean isAborted(
+        long targetId)
+    {
+        return !abortedStreamIds.isEmpty() && abortedStreamIds.contains(targetId);
+    }
+
+    private void abort(
+        long targetId)
+    {
+        if (abortedStreamIds.add(targetId))
+        {
+            // a frame was dropped, so reset both the source stream and the target stream
+            // the target stream is not ended, so that its truncated content is never seen as complete
+            final ResetFW reset = resetRW.wrap(abortBuffer, 0, abortBuffer.capacity())
+                    .streamId(targetId)
+                    .build();
+
+            final MessageHandler throttle = throttles.get(targetId);
+            if (throttle != null)
+            {
+                throttle.onMessage(reset.typeId(), abortBuffer, reset.offset(), reset.length());
+            }
+
+            writeStreams(reset.typeId(), reset.buffer(), reset.offset(), reset.length());
+        }
+    }
+
+    private void setPayloadBytes(
+        OctetsFW.Builder payload)
+    {
+        payload.set(payloadBuffer, payloadOffset, payloadLength);
+    }
+
+    private void setPayloadOctets(
+        OctetsFW.Builder payload)
+    {
+        payload.set(payloadOctets);
+    }
+
+    private void setHttpBeginEx(
+        OctetsFW.Builder extension)
+    {
+        extension.set(visitHttpBeginEx);
+    }
+
+    private int visitHttpBeginEx(
+        MutableDirectBuffer buffer,
+        int offset,
+        int limit)
     {
-        return (buffer, offset, limit) ->
-            httpBeginExRW.wrap(buffer, offset, limit)
-                         .headers(headers)
-                         .build()
-                         .length();
+        return httpBeginExRW.wrap(buffer, offset, limit)
+                            .headers(httpHeaders)
+                            .build()
+                            .length();
     }
 }
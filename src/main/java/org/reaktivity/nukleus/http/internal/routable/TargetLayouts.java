@@ -0,0 +1,126 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.routable;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.reaktivity.nukleus.http.internal.Context;
+import org.reaktivity.nukleus.http.internal.layouts.StreamsLayout;
+
+public final class TargetLayouts implements AutoCloseable
+{
+    private final Context context;
+    private final ExecutorService executor;
+    private final ConcurrentMap<Path, CompletableFuture<StreamsLayout>> layoutsByPath;
+
+    public TargetLayouts(
+        Context context,
+        boolean background)
+    {
+        this.context = context;
+        this.executor = background ? Executors.newSingleThreadExecutor(TargetLayouts::newThread) : null;
+        this.layoutsByPath = new ConcurrentHashMap<>();
+    }
+
+    public Path path(
+        String sourceName,
+        int workerIndex,
+        String targetName)
+    {
+        final String partitionName = workerIndex == 0 ? sourceName : String.format("%s#%d", sourceName, workerIndex);
+        return context.targetStreamsPath().apply(partitionName, targetName);
+    }
+
+    public CompletableFuture<?> prepare(
+        String sourceName,
+        String targetName)
+    {
+        if (executor == null)
+        {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        final int workerCount = context.workerCount();
+        final CompletableFuture<?>[] prepared = new CompletableFuture<?>[workerCount];
+        for (int workerIndex = 0; workerIndex < workerCount; workerIndex++)
+        {
+            final Path path = path(sourceName, workerIndex, targetName);
+            final CompletableFuture<StreamsLayout> layout = layoutsByPath.computeIfAbsent(path, this::prepareLayout);
+            prepared[workerIndex] = layout != null ? layout : CompletableFuture.completedFuture(null);
+        }
+
+        return CompletableFuture.allOf(prepared);
+    }
+
+    public StreamsLayout supply(
+        Path path)
+    {
+        final CompletableFuture<StreamsLayout> layout = layoutsByPath.computeIfAbsent(path, this::newLayout);
+        layoutsByPath.remove(path, layout);
+        return layout.isCompletedExceptionally() ? buildLayout(path) : layout.join();
+    }
+
+    @Override
+    public void close()
+    {
+        if (executor != null)
+        {
+            executor.shutdownNow();
+        }
+
+        layoutsByPath.values().forEach(f -> f.thenAccept(StreamsLayout::close));
+        layoutsByPath.clear();
+    }
+
+    private CompletableFuture<StreamsLayout> prepareLayout(
+        Path path)
+    {
+        // never recreate a layout that is already in use
+        return Files.exists(path) ? null : CompletableFuture.supplyAsync(() -> buildLayout(path), executor);
+    }
+
+    private CompletableFuture<StreamsLayout> newLayout(
+        Path path)
+    {
+        return CompletableFuture.completedFuture(buildLayout(path));
+    }
+
+    private StreamsLayout buildLayout(
+        Path path)
+    {
+        return new StreamsLayout.Builder()
+                .path(path)
+                .streamsCapacity(context.streamsBufferCapacity())
+                .throttleCapacity(context.throttleBufferCapacity())
+                .readonly(false)
+                .pretouch(context.pretouchLayouts())
+                .build();
+    }
+
+    private static Thread newThread(
+        Runnable runnable)
+    {
+        final Thread thread = new Thread(runnable, "http-layouts");
+        thread.setDaemon(true);
+        return thread;
+    }
+}
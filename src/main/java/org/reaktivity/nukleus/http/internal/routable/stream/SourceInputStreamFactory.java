@@ -22,11 +22,13 @@ import static org.reaktivity.nukleus.http.internal.util.BufferUtil.limitOfBytes;
 
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.function.LongFunction;
+import java.util.function.Consumer;
 import java.util.function.LongSupplier;
 import java.util.function.Predicate;
 import java.util.regex.Matcher;
@@ -35,9 +37,12 @@ import java.util.regex.Pattern;
 import org.agrona.DirectBuffer;
 import org.agrona.MutableDirectBuffer;
 import org.agrona.concurrent.MessageHandler;
+import org.agrona.concurrent.NanoClock;
 import org.agrona.concurrent.UnsafeBuffer;
 import org.reaktivity.nukleus.http.internal.routable.Correlation;
 import org.reaktivity.nukleus.http.internal.routable.Route;
+import org.reaktivity.nukleus.http.internal.routable.RouteCounters;
+import org.reaktivity.nukleus.http.internal.routable.RouteTable;
 import org.reaktivity.nukleus.http.internal.routable.Source;
 import org.reaktivity.nukleus.http.internal.routable.Target;
 import org.reaktivity.nukleus.http.internal.types.OctetsFW;
@@ -47,12 +52,15 @@ import org.reaktivity.nukleus.http.internal.types.stream.EndFW;
 import org.reaktivity.nukleus.http.internal.types.stream.FrameFW;
 import org.reaktivity.nukleus.http.internal.types.stream.ResetFW;
 import org.reaktivity.nukleus.http.internal.types.stream.WindowFW;
+import org.reaktivity.nukleus.http.internal.util.Histogram;
 import org.reaktivity.nukleus.http.internal.util.function.LongObjectBiConsumer;
 
 public final class SourceInputStreamFactory
 {
     private static final byte[] CRLFCRLF_BYTES = "\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
 
+    private static final DecoderState DECODE_NONE = (b, o, l) -> o;
+
     private final FrameFW frameRO = new FrameFW();
 
     private final BeginFW beginRO = new BeginFW();
@@ -63,42 +71,87 @@ public final class SourceInputStreamFactory
     private final ResetFW resetRO = new ResetFW();
 
     private final Source source;
-    private final LongFunction<List<Route>> supplyRoutes;
     private final LongSupplier supplyStreamId;
     private final Target rejectTarget;
     private final LongObjectBiConsumer<Correlation> correlateNew;
+    private final Consumer<RouteTable> retainRouteTable;
+    private final Consumer<RouteTable> unpinRouteTable;
+    private final Histogram decodeTimes;
+    private final boolean routeCounters;
+    private final NanoClock nanoClock;
+    private final Deque<SourceInputStream> streamPool;
+    private final int streamPoolCapacity;
 
     public SourceInputStreamFactory(
         Source source,
-        LongFunction<List<Route>> supplyRoutes,
         LongSupplier supplyStreamId,
         Target rejectTarget,
-        LongObjectBiConsumer<Correlation> correlateNew)
+        LongObjectBiConsumer<Correlation> correlateNew,
+        Consumer<RouteTable> retainRouteTable,
+        Consumer<RouteTable> unpinRouteTable,
+        Histogram decodeTimes,
+        boolean routeCounters,
+        NanoClock nanoClock,
+        int streamPoolCapacity)
     {
         this.source = source;
-        this.supplyRoutes = supplyRoutes;
         this.supplyStreamId = supplyStreamId;
         this.rejectTarget = rejectTarget;
         this.correlateNew = correlateNew;
+        this.retainRouteTable = retainRouteTable;
+        this.unpinRouteTable = unpinRouteTable;
+        this.decodeTimes = decodeTimes;
+        this.routeCounters = routeCounters;
+        this.nanoClock = nanoClock;
+        this.streamPool = new ArrayDeque<>(streamPoolCapacity);
+        this.streamPoolCapacity = streamPoolCapacity;
     }
 
-    public MessageHandler newStream()
+    public Stream newStream(
+        RouteTable routeTable)
     {
-        return new SourceInputStream()::handleStream;
+        SourceInputStream stream = streamPool.poll();
+        if (stream != null)
+        {
+            stream.reset();
+        }
+        else
+        {
+            stream = new SourceInputStream();
+        }
+
+        stream.routeTable = routeTable;
+        return stream;
     }
 
-    private final class SourceInputStream
+    private final class SourceInputStream implements Stream
     {
+        private final MessageHandler streamBeforeBegin = this::streamBeforeBegin;
+        private final MessageHandler streamAfterBeginOrData = this::streamAfterBeginOrData;
+        private final MessageHandler streamAfterEnd = this::streamAfterEnd;
+        private final MessageHandler streamAfterReplyOrReset = this::streamAfterReplyOrReset;
+
+        private final MessageHandler handleThrottle = this::handleThrottle;
+        private final MessageHandler throttleSkipNextWindow = this::throttleSkipNextWindow;
+        private final MessageHandler throttleNextWindow = this::throttleNextWindow;
+
+        private final DecoderState decodeHttpBegin = this::decodeHttpBegin;
+        private final DecoderState decodeHttpData = this::decodeHttpData;
+        private final DecoderState decodeHttpDataAfterUpgrade = this::decodeHttpDataAfterUpgrade;
+
         private MessageHandler streamState;
         private MessageHandler throttleState;
         private DecoderState decoderState;
 
         private long sourceId;
 
+        private RouteTable routeTable;
         private Target target;
         private long targetId;
+        private RouteCounters counters;
         private long sourceRef;
         private long correlationId;
+        private long stallAt;
         private int window;
         private int contentRemaining;
         private int sourceUpdateDeferred;
@@ -112,11 +165,43 @@ public final class SourceInputStreamFactory
 
         private SourceInputStream()
         {
-            this.streamState = this::streamBeforeBegin;
-            this.throttleState = this::throttleSkipNextWindow;
+            reset();
         }
 
-        private void handleStream(
+        private void reset()
+        {
+            this.streamState = streamBeforeBegin;
+            this.throttleState = throttleSkipNextWindow;
+            this.decoderState = null;
+            this.sourceId = 0L;
+            this.routeTable = null;
+            this.target = null;
+            this.targetId = 0L;
+            this.counters = null;
+            this.sourceRef = 0L;
+            this.correlationId = 0L;
+            this.stallAt = 0L;
+            this.window = 0;
+            this.contentRemaining = 0;
+            this.sourceUpdateDeferred = 0;
+        }
+
+        private void release()
+        {
+            if (target != null)
+            {
+                resume();
+                target.removeThrottle(targetId);
+            }
+
+            if (streamPool.size() < streamPoolCapacity)
+            {
+                streamPool.offer(this);
+            }
+        }
+
+        @Override
+        public void onMessage(
             int msgTypeId,
             MutableDirectBuffer buffer,
             int index,
@@ -125,6 +210,41 @@ public final class SourceInputStreamFactory
             streamState.onMessage(msgTypeId, buffer, index, length);
         }
 
+        @Override
+        public void abort()
+        {
+            source.doReset(sourceId);
+
+            release();
+        }
+
+        @Override
+        public String state()
+        {
+            return streamState == streamBeforeBegin ? "begin"
+                 : streamState == streamAfterBeginOrData ? "open"
+                 : streamState == streamAfterEnd ? "end"
+                 : "reset";
+        }
+
+        @Override
+        public Target target()
+        {
+            return target;
+        }
+
+        @Override
+        public long targetId()
+        {
+            return targetId;
+        }
+
+        @Override
+        public int window()
+        {
+            return window;
+        }
+
         private void streamBeforeBegin(
             int msgTypeId,
             DirectBuffer buffer,
@@ -190,7 +310,9 @@ public final class SourceInputStreamFactory
 
                 source.removeStream(streamId);
 
-                this.streamState = this::streamAfterEnd;
+                this.streamState = streamAfterEnd;
+
+                release();
             }
         }
 
@@ -210,7 +332,7 @@ public final class SourceInputStreamFactory
         {
             source.doReset(streamId);
 
-            this.streamState = this::streamAfterReplyOrReset;
+            this.streamState = streamAfterReplyOrReset;
         }
 
         private void processInvalidRequest(
@@ -220,19 +342,20 @@ public final class SourceInputStreamFactory
             this.target = rejectTarget;
 
             final long newTargetId = supplyStreamId.getAsLong();
+            this.targetId = newTargetId;
 
             // TODO: replace with connection pool (start)
             target.doBegin(newTargetId, 0L, correlationId);
-            target.addThrottle(newTargetId, this::handleThrottle);
+            target.addThrottle(newTargetId, handleThrottle);
             // TODO: replace with connection pool (end)
 
             // TODO: acquire slab for response if targetWindow requires partial write
             DirectBuffer payload = new UnsafeBuffer(payloadChars.getBytes(StandardCharsets.UTF_8));
             target.doData(newTargetId, payload, 0, payload.capacity());
 
-            this.decoderState = this::decodeHttpBegin;
-            this.streamState = this::streamAfterReplyOrReset;
-            this.throttleState = this::throttleSkipNextWindow;
+            this.decoderState = decodeHttpBegin;
+            this.streamState = streamAfterReplyOrReset;
+            this.throttleState = throttleSkipNextWindow;
             this.sourceUpdateDeferred = requestBytes - payload.capacity();
         }
 
@@ -247,8 +370,8 @@ public final class SourceInputStreamFactory
             this.sourceRef = beginRO.referenceId();
             this.correlationId = beginRO.correlationId();
 
-            this.streamState = this::streamAfterBeginOrData;
-            this.decoderState = this::decodeHttpBegin;
+            this.streamState = streamAfterBeginOrData;
+            this.decoderState = decodeHttpBegin;
 
             // TODO: acquire slab for request decode of up to initial bytes
             final int initial = 512;
@@ -279,6 +402,12 @@ public final class SourceInputStreamFactory
                 {
                     offset = decoderState.decode(buffer, offset, limit);
                 }
+
+                if (window == 0 && throttleState == throttleNextWindow)
+                {
+                    // waiting for target window
+                    stall();
+                }
             }
         }
 
@@ -290,10 +419,13 @@ public final class SourceInputStreamFactory
             endRO.wrap(buffer, index, index + length);
             final long streamId = endRO.streamId();
 
-            decoderState = (b, o, l) -> o;
+            decoderState = DECODE_NONE;
 
             source.removeStream(streamId);
-            target.removeThrottle(targetId);
+
+            this.streamState = streamAfterEnd;
+
+            release();
         }
 
         private int decodeHttpBegin(
@@ -301,6 +433,7 @@ public final class SourceInputStreamFactory
             final int offset,
             final int limit)
         {
+            final long decodeAt = decodeTimes != null || routeCounters ? nanoClock.nanoTime() : 0L;
             final int endOfHeadersAt = limitOfBytes(payload, offset, limit, CRLFCRLF_BYTES);
             if (endOfHeadersAt == -1)
             {
@@ -333,31 +466,40 @@ public final class SourceInputStreamFactory
                     final Optional<Route> optional = resolveTarget(sourceRef, headers);
                     if (optional.isPresent())
                     {
+                        final Route route = optional.get();
+                        final Target newTarget = route.target();
+                        final long targetRef = route.targetRef();
+                        final RouteCounters newCounters = route.counters();
+
                         final long newTargetId = supplyStreamId.getAsLong();
                         final long targetCorrelationId = newTargetId;
-                        final Correlation correlation = new Correlation(correlationId, source.routableName(), OUTPUT_ESTABLISHED);
+                        final Correlation correlation = new Correlation(correlationId, source.routableName(),
+                                OUTPUT_ESTABLISHED, newCounters, decodeAt, routeTable, unpinRouteTable);
+                        retainRouteTable.accept(routeTable);
 
                         correlateNew.accept(targetCorrelationId, correlation);
 
-                        final Route route = optional.get();
-                        final Target newTarget = route.target();
-                        final long targetRef = route.targetRef();
+                        if (newCounters != null)
+                        {
+                            newCounters.onRequest(endOfHeadersAt - offset);
+                        }
+                        this.counters = newCounters;
 
                         newTarget.doHttpBegin(newTargetId, targetRef, targetCorrelationId,
                                 hs -> headers.forEach((k, v) -> hs.item(i -> i.name(k).value(v))));
-                        newTarget.addThrottle(newTargetId, this::handleThrottle);
+                        newTarget.addThrottle(newTargetId, handleThrottle);
 
                         boolean hasUpgrade = headers.containsKey("upgrade");
 
                         // TODO: wait for 101 first
                         if (hasUpgrade)
                         {
-                            this.decoderState = this::decodeHttpDataAfterUpgrade;
+                            this.decoderState = decodeHttpDataAfterUpgrade;
                         }
                         else
                         {
                             this.contentRemaining = parseInt(headers.getOrDefault("content-length", "0"));
-                            this.decoderState = this::decodeHttpData;
+                            this.decoderState = decodeHttpData;
                         }
 
                         if (hasUpgrade || contentRemaining != 0)
@@ -365,7 +507,7 @@ public final class SourceInputStreamFactory
                             // content stream
                             this.target = newTarget;
                             this.targetId = newTargetId;
-                            this.throttleState = this::throttleNextWindow;
+                            this.throttleState = throttleNextWindow;
                             this.sourceUpdateDeferred = endOfHeadersAt - offset;
                         }
                         else
@@ -376,7 +518,7 @@ public final class SourceInputStreamFactory
 
                             this.target = newTarget;
                             this.targetId = newTargetId;
-                            this.throttleState = this::throttleSkipNextWindow;
+                            this.throttleState = throttleSkipNextWindow;
                         }
                     }
                     else
@@ -386,6 +528,11 @@ public final class SourceInputStreamFactory
                 }
             }
 
+            if (decodeTimes != null)
+            {
+                decodeTimes.record(nanoClock.nanoTime() - decodeAt);
+            }
+
             return endOfHeadersAt;
         }
 
@@ -445,6 +592,11 @@ public final class SourceInputStreamFactory
             // TODO: consider chunks
             target.doHttpData(targetId, payload, offset, length);
 
+            if (counters != null)
+            {
+                counters.onRequestBytes(length);
+            }
+
             contentRemaining -= length;
 
             if (contentRemaining == 0)
@@ -457,7 +609,7 @@ public final class SourceInputStreamFactory
                     sourceUpdateDeferred = 0;
                 }
 
-                this.throttleState = this::throttleSkipNextWindow;
+                this.throttleState = throttleSkipNextWindow;
             }
 
             return offset + length;
@@ -469,6 +621,12 @@ public final class SourceInputStreamFactory
             int limit)
         {
             target.doData(targetId, payload, offset, limit - offset);
+
+            if (counters != null)
+            {
+                counters.onRequestBytes(limit - offset);
+            }
+
             return limit;
         }
 
@@ -487,7 +645,7 @@ public final class SourceInputStreamFactory
             long sourceRef,
             Map<String, String> headers)
         {
-            final List<Route> routes = supplyRoutes.apply(sourceRef);
+            final List<Route> routes = routeTable.routes(sourceRef);
             final Predicate<Route> predicate = headersMatch(headers);
 
             return routes.stream().filter(predicate).findFirst();
@@ -549,7 +707,7 @@ public final class SourceInputStreamFactory
         {
             windowRO.wrap(buffer, index, index + length);
 
-            throttleState = this::throttleNextWindow;
+            throttleState = throttleNextWindow;
         }
 
         private void processNextWindow(
@@ -569,6 +727,11 @@ public final class SourceInputStreamFactory
 
             window += update;
             source.doWindow(sourceId, update + framing(update));
+
+            if (window > 0)
+            {
+                resume();
+            }
         }
 
 
@@ -579,8 +742,26 @@ public final class SourceInputStreamFactory
         {
             resetRO.wrap(buffer, index, index + length);
 
+            resume();
             source.doReset(sourceId);
         }
+
+        private void stall()
+        {
+            if (stallAt == 0L)
+            {
+                stallAt = target.onStall();
+            }
+        }
+
+        private void resume()
+        {
+            if (stallAt != 0L)
+            {
+                target.onResume(stallAt);
+                stallAt = 0L;
+            }
+        }
     }
 
     private static int framing(
@@ -15,6 +15,8 @@
  */
 package org.reaktivity.nukleus.http.internal.routable.stream;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.List;
 import java.util.function.LongFunction;
 import java.util.function.LongSupplier;
@@ -43,36 +45,68 @@ public final class SourceOutputStreamFactory
     private final LongSupplier supplyTargetId;
     private final LongFunction<List<Route>> supplyRoutes;
     private final LongObjectBiConsumer<Correlation> correlateNew;
+    private final Deque<SourceOutputStream> streamPool;
+    private final int streamPoolCapacity;
 
     public SourceOutputStreamFactory(
         Source source,
         LongFunction<List<Route>> supplyRoutes,
         LongSupplier supplyTargetId,
-        LongObjectBiConsumer<Correlation> correlateNew)
+        LongObjectBiConsumer<Correlation> correlateNew,
+        int streamPoolCapacity)
     {
         this.source = source;
         this.supplyTargetId = supplyTargetId;
         this.supplyRoutes = supplyRoutes;
         this.correlateNew = correlateNew;
+        this.streamPool = new ArrayDeque<>(streamPoolCapacity);
+        this.streamPoolCapacity = streamPoolCapacity;
     }
 
-    public MessageHandler newStream()
+    public Stream newStream()
     {
-        return new SourceOutputStream()::handleStream;
+        final SourceOutputStream stream = streamPool.poll();
+        if (stream != null)
+        {
+            stream.reset();
+            return stream;
+        }
+
+        return new SourceOutputStream();
     }
 
-    private final class SourceOutputStream
+    private final class SourceOutputStream implements Stream
     {
+        private final MessageHandler beforeBegin = this::beforeBegin;
+        private final MessageHandler afterBeginOrData = this::afterBeginOrData;
+        private final MessageHandler afterEnd = this::afterEnd;
+        private final MessageHandler afterReplyOrReset = this::afterReplyOrReset;
+
         private MessageHandler currentState;
 
         private long sourceId;
 
         private SourceOutputStream()
         {
-            nextState(this::beforeBegin);
+            reset();
         }
 
-        private void handleStream(
+        private void reset()
+        {
+            nextState(beforeBegin);
+            this.sourceId = 0L;
+        }
+
+        private void release()
+        {
+            if (streamPool.size() < streamPoolCapacity)
+            {
+                streamPool.offer(this);
+            }
+        }
+
+        @Override
+        public void onMessage(
             int msgTypeId,
             MutableDirectBuffer buffer,
             int index,
@@ -81,6 +115,23 @@ public final class SourceOutputStreamFactory
             currentState.onMessage(msgTypeId, buffer, index, length);
         }
 
+        @Override
+        public void abort()
+        {
+            source.doReset(sourceId);
+
+            release();
+        }
+
+        @Override
+        public String state()
+        {
+            return currentState == beforeBegin ? "begin"
+                 : currentState == afterBeginOrData ? "open"
+                 : currentState == afterEnd ? "end"
+                 : "reset";
+        }
+
         private void beforeBegin(
             int msgTypeId,
             MutableDirectBuffer buffer,
@@ -146,7 +197,9 @@ public final class SourceOutputStreamFactory
 
                 source.removeStream(streamId);
 
-                nextState(this::afterEnd);
+                nextState(afterEnd);
+
+                release();
             }
         }
 
@@ -157,7 +210,9 @@ public final class SourceOutputStreamFactory
         {
             beginRO.wrap(buffer, index, index + length);
 
-            nextState(this::afterBeginOrData);
+            this.sourceId = beginRO.streamId();
+
+            nextState(afterBeginOrData);
         }
 
         private void processData(
@@ -179,7 +234,7 @@ public final class SourceOutputStreamFactory
 
             // TODO
 
-            nextState(this::afterEnd);
+            nextState(afterEnd);
         }
 
         private void processUnexpected(
@@ -193,7 +248,7 @@ public final class SourceOutputStreamFactory
 
             source.doReset(streamId);
 
-            nextState(this::afterReplyOrReset);
+            nextState(afterReplyOrReset);
         }
 
         private void nextState(
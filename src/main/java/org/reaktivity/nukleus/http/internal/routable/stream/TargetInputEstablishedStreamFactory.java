@@ -20,13 +20,16 @@ import java.util.function.LongFunction;
 import java.util.function.LongSupplier;
 
 import org.agrona.MutableDirectBuffer;
-import org.agrona.concurrent.MessageHandler;
 import org.reaktivity.nukleus.http.internal.routable.Correlation;
 import org.reaktivity.nukleus.http.internal.routable.Route;
 import org.reaktivity.nukleus.http.internal.routable.Source;
+import org.reaktivity.nukleus.http.internal.types.stream.EndFW;
+import org.reaktivity.nukleus.http.internal.types.stream.FrameFW;
 
 public final class TargetInputEstablishedStreamFactory
 {
+    private final FrameFW frameRO = new FrameFW();
+
     private final Source source;
     private final LongFunction<List<Route>> supplyRoutes;
     private final LongSupplier supplyTargetId;
@@ -44,25 +47,36 @@ public final class TargetInputEstablishedStreamFactory
         this.correlateEstablished = correlateEstablished;
     }
 
-    public MessageHandler newStream()
+    public Stream newStream()
     {
-        return new TargetInputEstablishedStream()::handleStream;
+        return new TargetInputEstablishedStream();
     }
 
-    private final class TargetInputEstablishedStream
+    private final class TargetInputEstablishedStream implements Stream
     {
-        private TargetInputEstablishedStream()
-        {
-            // TODO Auto-generated constructor stub
-        }
+        private long sourceId;
 
-        private void handleStream(
+        @Override
+        public void onMessage(
             int msgTypeId,
             MutableDirectBuffer buffer,
             int index,
             int length)
         {
-            // TODO:
+            // TODO: decode http response
+            this.sourceId = frameRO.wrap(buffer, index, index + length).streamId();
+
+            if (msgTypeId == EndFW.TYPE_ID)
+            {
+                source.removeStream(sourceId);
+            }
+        }
+
+        @Override
+        public void abort()
+        {
+            // no window is granted and no throttle is registered, so only the peer needs to be reset
+            source.doReset(sourceId);
         }
     }
 }
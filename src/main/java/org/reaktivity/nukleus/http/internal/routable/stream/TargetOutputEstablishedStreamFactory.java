@@ -18,7 +18,9 @@ package org.reaktivity.nukleus.http.internal.routable.stream;
 import static java.lang.Character.toUpperCase;
 import static java.nio.charset.StandardCharsets.US_ASCII;
 
+import java.util.ArrayDeque;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.function.Function;
@@ -28,8 +30,10 @@ import java.util.function.LongSupplier;
 import org.agrona.DirectBuffer;
 import org.agrona.MutableDirectBuffer;
 import org.agrona.concurrent.MessageHandler;
+import org.agrona.concurrent.NanoClock;
 import org.agrona.concurrent.UnsafeBuffer;
 import org.reaktivity.nukleus.http.internal.routable.Correlation;
+import org.reaktivity.nukleus.http.internal.routable.RouteCounters;
 import org.reaktivity.nukleus.http.internal.routable.Source;
 import org.reaktivity.nukleus.http.internal.routable.Target;
 import org.reaktivity.nukleus.http.internal.types.OctetsFW;
@@ -60,26 +64,51 @@ public final class TargetOutputEstablishedStreamFactory
     private final Function<String, Target> supplyTarget;
     private final LongSupplier supplyStreamId;
     private final LongFunction<Correlation> correlateEstablished;
+    private final NanoClock nanoClock;
+    private final Deque<TargetOutputEstablishedStream> streamPool;
+    private final int streamPoolCapacity;
 
     public TargetOutputEstablishedStreamFactory(
         Source source,
         Function<String, Target> supplyTarget,
         LongSupplier supplyStreamId,
-        LongFunction<Correlation> correlateEstablished)
+        LongFunction<Correlation> correlateEstablished,
+        NanoClock nanoClock,
+        int streamPoolCapacity)
     {
         this.source = source;
         this.supplyTarget = supplyTarget;
         this.supplyStreamId = supplyStreamId;
         this.correlateEstablished = correlateEstablished;
+        this.nanoClock = nanoClock;
+        this.streamPool = new ArrayDeque<>(streamPoolCapacity);
+        this.streamPoolCapacity = streamPoolCapacity;
     }
 
-    public MessageHandler newStream()
+    public Stream newStream()
     {
-        return new TargetOutputEstablishedStream()::handleStream;
+        final TargetOutputEstablishedStream stream = streamPool.poll();
+        if (stream != null)
+        {
+            stream.reset();
+            return stream;
+        }
+
+        return new TargetOutputEstablishedStream();
     }
 
-    private final class TargetOutputEstablishedStream
+    private final class TargetOutputEstablishedStream implements Stream
     {
+        private final MessageHandler beforeBegin = this::beforeBegin;
+        private final MessageHandler afterBeginOrData = this::afterBeginOrData;
+        private final MessageHandler afterEnd = this::afterEnd;
+        private final MessageHandler afterRejectOrReset = this::afterRejectOrReset;
+
+        private final MessageHandler handleThrottle = this::handleThrottle;
+        private final MessageHandler throttleNextThenSkipWindow = this::throttleNextThenSkipWindow;
+        private final MessageHandler throttleSkipNextWindow = this::throttleSkipNextWindow;
+        private final MessageHandler throttleNextWindow = this::throttleNextWindow;
+
         private MessageHandler streamState;
         private MessageHandler throttleState;
 
@@ -87,7 +116,10 @@ public final class TargetOutputEstablishedStreamFactory
 
         private Target target;
         private long targetId;
+        private Correlation correlation;
+        private RouteCounters counters;
 
+        private long stallAt;
         private int window;
 
         @Override
@@ -99,11 +131,49 @@ public final class TargetOutputEstablishedStreamFactory
 
         private TargetOutputEstablishedStream()
         {
-            this.streamState = this::beforeBegin;
-            this.throttleState = this::throttleSkipNextWindow;
+            reset();
+        }
+
+        private void reset()
+        {
+            this.streamState = beforeBegin;
+            this.throttleState = throttleSkipNextWindow;
+            this.sourceId = 0L;
+            this.target = null;
+            this.targetId = 0L;
+            this.correlation = null;
+            this.counters = null;
+            this.stallAt = 0L;
+            this.window = 0;
+        }
+
+        private void release()
+        {
+            if (target != null)
+            {
+                resume();
+                target.removeThrottle(targetId);
+            }
+
+            releaseCorrelation();
+
+            if (streamPool.size() < streamPoolCapacity)
+            {
+                streamPool.offer(this);
+            }
+        }
+
+        private void releaseCorrelation()
+        {
+            if (correlation != null)
+            {
+                correlation.release();
+                correlation = null;
+            }
         }
 
-        private void handleStream(
+        @Override
+        public void onMessage(
             int msgTypeId,
             MutableDirectBuffer buffer,
             int index,
@@ -112,6 +182,41 @@ public final class TargetOutputEstablishedStreamFactory
             streamState.onMessage(msgTypeId, buffer, index, length);
         }
 
+        @Override
+        public void abort()
+        {
+            source.doReset(sourceId);
+
+            release();
+        }
+
+        @Override
+        public String state()
+        {
+            return streamState == beforeBegin ? "begin"
+                 : streamState == afterBeginOrData ? "open"
+                 : streamState == afterEnd ? "end"
+                 : "reset";
+        }
+
+        @Override
+        public Target target()
+        {
+            return target;
+        }
+
+        @Override
+        public long targetId()
+        {
+            return targetId;
+        }
+
+        @Override
+        public int window()
+        {
+            return window;
+        }
+
         private void beforeBegin(
             int msgTypeId,
             DirectBuffer buffer,
@@ -177,7 +282,9 @@ public final class TargetOutputEstablishedStreamFactory
 
                 source.removeStream(streamId);
 
-                this.streamState = this::afterEnd;
+                this.streamState = afterEnd;
+
+                release();
             }
         }
 
@@ -192,7 +299,9 @@ public final class TargetOutputEstablishedStreamFactory
 
             source.doReset(streamId);
 
-            this.streamState = this::afterRejectOrReset;
+            releaseCorrelation();
+
+            this.streamState = afterRejectOrReset;
         }
 
         private void processBegin(
@@ -209,6 +318,9 @@ public final class TargetOutputEstablishedStreamFactory
 
             final Correlation correlation = correlateEstablished.apply(targetCorrelationId);
 
+            this.sourceId = newSourceId;
+            this.correlation = correlation;
+
             if (sourceRef == 0L && correlation != null)
             {
                 final Target newTarget = supplyTarget.apply(correlation.source());
@@ -224,13 +336,12 @@ public final class TargetOutputEstablishedStreamFactory
                     headers = headers0;
                 }
 
-                this.sourceId = newSourceId;
                 this.target = newTarget;
                 this.targetId = newTargetId;
 
                 // TODO: replace with connection pool (start)
                 target.doBegin(newTargetId, 0L, sourceCorrelationId);
-                newTarget.addThrottle(newTargetId, this::handleThrottle);
+                newTarget.addThrottle(newTargetId, handleThrottle);
                 // TODO: replace with connection pool (end)
 
                 // default status (and reason)
@@ -262,8 +373,16 @@ public final class TargetOutputEstablishedStreamFactory
 
                 target.doData(targetId, payload, 0, payload.capacity());
 
-                this.streamState = this::afterBeginOrData;
-                this.throttleState = this::throttleNextThenSkipWindow;
+                final RouteCounters newCounters = correlation.counters();
+                if (newCounters != null)
+                {
+                    newCounters.onFirstByte(nanoClock.nanoTime() - correlation.beginAt());
+                    newCounters.onResponse(status[0], payload.capacity());
+                }
+                this.counters = newCounters;
+
+                this.streamState = afterBeginOrData;
+                this.throttleState = throttleNextThenSkipWindow;
             }
             else
             {
@@ -289,6 +408,17 @@ public final class TargetOutputEstablishedStreamFactory
             else
             {
                 target.doData(targetId, payload);
+
+                if (counters != null)
+                {
+                    counters.onResponseBytes(payload.length());
+                }
+
+                if (window == 0)
+                {
+                    // waiting for target window
+                    stall();
+                }
             }
         }
 
@@ -299,8 +429,11 @@ public final class TargetOutputEstablishedStreamFactory
         {
             endRO.wrap(buffer, index, index + length);
 
-            target.removeThrottle(targetId);
             source.removeStream(sourceId);
+
+            this.streamState = afterEnd;
+
+            release();
         }
 
         private void handleThrottle(
@@ -379,7 +512,7 @@ public final class TargetOutputEstablishedStreamFactory
         {
             windowRO.wrap(buffer, index, index + length);
 
-            throttleState = this::throttleNextWindow;
+            throttleState = throttleNextWindow;
         }
 
         private void processNextWindow(
@@ -393,6 +526,11 @@ public final class TargetOutputEstablishedStreamFactory
 
             window += update;
             source.doWindow(sourceId, update);
+
+            if (window > 0)
+            {
+                resume();
+            }
         }
 
         private void processNextThenSkipWindow(
@@ -407,7 +545,12 @@ public final class TargetOutputEstablishedStreamFactory
             window += update;
             source.doWindow(sourceId, update);
 
-            throttleState = this::throttleSkipNextWindow;
+            if (window > 0)
+            {
+                resume();
+            }
+
+            throttleState = throttleSkipNextWindow;
         }
 
         private void processReset(
@@ -417,7 +560,25 @@ public final class TargetOutputEstablishedStreamFactory
         {
             resetRO.wrap(buffer, index, index + length);
 
+            resume();
             source.doReset(sourceId);
         }
+
+        private void stall()
+        {
+            if (stallAt == 0L)
+            {
+                stallAt = target.onStall();
+            }
+        }
+
+        private void resume()
+        {
+            if (stallAt != 0L)
+            {
+                target.onResume(stallAt);
+                stallAt = 0L;
+            }
+        }
     }
 }
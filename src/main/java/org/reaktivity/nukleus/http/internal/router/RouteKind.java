@@ -23,7 +23,7 @@ import org.reaktivity.nukleus.http.internal.types.control.State;
 
 public enum RouteKind
 {
-    INPUT
+    INPUT(Role.INPUT, State.NONE)
     {
         @Override
         protected final long nextRef(
@@ -36,7 +36,7 @@ public enum RouteKind
         }
     },
 
-    OUTPUT_ESTABLISHED
+    OUTPUT_ESTABLISHED(Role.OUTPUT, State.ESTABLISHED)
     {
         @Override
         protected final long nextRef(
@@ -49,7 +49,7 @@ public enum RouteKind
         }
     },
 
-    OUTPUT
+    OUTPUT(Role.OUTPUT, State.NONE)
     {
         @Override
         protected final long nextRef(
@@ -61,7 +61,7 @@ public enum RouteKind
         }
     },
 
-    INPUT_ESTABLISHED
+    INPUT_ESTABLISHED(Role.INPUT, State.ESTABLISHED)
     {
         @Override
         protected final long nextRef(
@@ -73,6 +73,27 @@ public enum RouteKind
         }
     };
 
+    private final Role role;
+    private final State state;
+
+    RouteKind(
+        Role role,
+        State state)
+    {
+        this.role = role;
+        this.state = state;
+    }
+
+    public final Role role()
+    {
+        return role;
+    }
+
+    public final State state()
+    {
+        return state;
+    }
+
     public final long nextRef(
         AtomicCounter counter)
     {
@@ -16,19 +16,37 @@
 package org.reaktivity.nukleus.http.internal.router;
 
 import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.agrona.LangUtil;
 import org.agrona.collections.Long2ObjectHashMap;
+import org.agrona.concurrent.ManyToOneConcurrentArrayQueue;
 import org.agrona.concurrent.status.AtomicCounter;
 import org.reaktivity.nukleus.Nukleus;
 import org.reaktivity.nukleus.Reaktive;
 import org.reaktivity.nukleus.http.internal.Context;
 import org.reaktivity.nukleus.http.internal.conductor.Conductor;
+import org.reaktivity.nukleus.http.internal.conductor.RouteSnapshot;
 import org.reaktivity.nukleus.http.internal.routable.Correlation;
 import org.reaktivity.nukleus.http.internal.routable.Routable;
+import org.reaktivity.nukleus.http.internal.routable.Route;
+import org.reaktivity.nukleus.http.internal.routable.RouteEntry;
+import org.reaktivity.nukleus.http.internal.routable.StreamEntry;
+import org.reaktivity.nukleus.http.internal.routable.StreamsCollector;
+import org.reaktivity.nukleus.http.internal.util.function.LongObjectBiConsumer;
 import org.reaktivity.nukleus.http.internal.types.control.Role;
 import org.reaktivity.nukleus.http.internal.types.control.State;
 
@@ -36,21 +54,72 @@ import org.reaktivity.nukleus.http.internal.types.control.State;
 public final class Router extends Nukleus.Composite
 {
     private static final Pattern SOURCE_NAME = Pattern.compile("([^#]+).*");
+    private static final int DEFERRED_CAPACITY = 1024;
+    private static final int STREAMS_PAGE_SIZE = 256;
 
     private final Context context;
+    private final int workerIndex;
     private final Map<String, Routable> routables;
-    private final Long2ObjectHashMap<Correlation> correlations;
+    private final LongObjectBiConsumer<Correlation> correlateNew;
+    private final LongFunction<Correlation> correlateEstablished;
+    private final LongFunction<Correlation> lookupEstablished;
     private final AtomicCounter routesSourced;
+    private final StreamIdAllocator supplyStreamId;
+    private final ManyToOneConcurrentArrayQueue<Runnable> deferred;
+    private final RouteSnapshot snapshot;
+    private final Deque<StreamsCollection> streamsCollections;
+    private final Deque<Runnable> queuedCommands;
 
     private Conductor conductor;
+    private List<Worker> workers;
+    private boolean routesChanged;
+    private boolean preparing;
 
     public Router(
         Context context)
+    {
+        this(context, new Long2ObjectHashMap<Correlation>());
+    }
+
+    public Router(
+        Context context,
+        int workerIndex,
+        ConcurrentMap<Long, Correlation> correlations)
+    {
+        this(context, workerIndex, correlations::put, correlations::get, correlations::remove);
+    }
+
+    private Router(
+        Context context,
+        Long2ObjectHashMap<Correlation> correlations)
+    {
+        this(context, 0, correlations::put, correlations::get, correlations::remove);
+    }
+
+    private Router(
+        Context context,
+        int workerIndex,
+        LongObjectBiConsumer<Correlation> correlateNew,
+        LongFunction<Correlation> correlateEstablished,
+        LongFunction<Correlation> lookupEstablished)
     {
         this.context = context;
+        this.workerIndex = workerIndex;
         this.routables = new HashMap<>();
-        this.correlations = new Long2ObjectHashMap<>();
+        this.correlateNew = correlateNew;
+        this.correlateEstablished = correlateEstablished;
+        this.lookupEstablished = lookupEstablished;
         this.routesSourced = context.counters().routesSourced();
+        this.supplyStreamId = new StreamIdAllocator(context.counters().streamsReserved(),
+                                                    context.counters().streamsSourced(),
+                                                    StreamIdAllocator.BLOCK_SIZE_DEFAULT);
+        this.workers = Collections.emptyList();
+        this.deferred = new ManyToOneConcurrentArrayQueue<>(DEFERRED_CAPACITY);
+        this.streamsCollections = new ArrayDeque<>();
+        this.queuedCommands = new ArrayDeque<>();
+        this.snapshot = workerIndex == 0 && context.routeSnapshotPath() != null
+                ? new RouteSnapshot(context.routeSnapshotPath(), context.routeSnapshotIntervalMillis(), context.logger())
+                : null;
     }
 
     public void setConductor(Conductor conductor)
@@ -58,12 +127,42 @@ public final class Router extends Nukleus.Composite
         this.conductor = conductor;
     }
 
+    public void setWorkers(List<Worker> workers)
+    {
+        this.workers = workers;
+    }
+
     @Override
     public String name()
     {
         return "router";
     }
 
+    public void restore()
+    {
+        if (snapshot != null)
+        {
+            final List<RouteEntry> routes = new ArrayList<>();
+            long routesSourcedMin = routesSourced.get();
+
+            for (RouteEntry route : snapshot.load())
+            {
+                final long sourceRef = route.sourceRef();
+                if (sourceRef != 0L && RouteKind.match(sourceRef) == RouteKind.valueOf(route.role(), route.state()))
+                {
+                    routes.add(route);
+                    routesSourcedMin = Math.max(routesSourcedMin, ((sourceRef & Long.MAX_VALUE) >>> 1) + 1L);
+                }
+            }
+
+            routesSourced.set(routesSourcedMin);
+
+            final List<RouteEntry> unroutes = Collections.emptyList();
+            routes(routes, unroutes);
+            workers.forEach(w -> w.execute(r -> r.routes(routes, unroutes)));
+        }
+    }
+
     public void doRoute(
         long correlationId,
         Role role,
@@ -73,6 +172,46 @@ public final class Router extends Nukleus.Composite
         String targetName,
         long targetRef,
         Map<String, String> headers)
+    {
+        submit(() -> onRoute(correlationId, role, state, sourceName, sourceRef, targetName, targetRef, headers));
+    }
+
+    public void doUnroute(
+        long correlationId,
+        Role role,
+        State state,
+        String sourceName,
+        long sourceRef,
+        String targetName,
+        long targetRef,
+        Map<String, String> headers)
+    {
+        submit(() -> onUnroute(correlationId, sourceName, sourceRef, targetName, targetRef, headers));
+    }
+
+    public void doRoutes(
+        long correlationId,
+        List<RouteEntry> routes,
+        List<RouteEntry> unroutes)
+    {
+        submit(() -> onRoutes(correlationId, routes, unroutes));
+    }
+
+    public void doStreams(
+        long correlationId)
+    {
+        submit(() -> onStreams(correlationId));
+    }
+
+    private void onRoute(
+        long correlationId,
+        Role role,
+        State state,
+        String sourceName,
+        long sourceRef,
+        String targetName,
+        long targetRef,
+        Map<String, String> headers)
     {
         final RouteKind routeKind = RouteKind.valueOf(role, state);
 
@@ -83,8 +222,11 @@ public final class Router extends Nukleus.Composite
 
         if (RouteKind.match(sourceRef) == routeKind)
         {
-            Routable routable = routables.computeIfAbsent(sourceName, this::newRoutable);
-            routable.doRoute(correlationId, sourceRef, targetName, targetRef, headers);
+            final long newSourceRef = sourceRef;
+            final Runnable routeNow = () -> doRouteNow(correlationId, sourceName, newSourceRef, targetName, targetRef, headers);
+            final CompletableFuture<?> prepared = context.targetLayouts().prepare(sourceName, targetName);
+
+            runWhenPrepared(prepared, routeNow);
         }
         else
         {
@@ -92,20 +234,20 @@ public final class Router extends Nukleus.Composite
         }
     }
 
-    public void doUnroute(
+    private void onUnroute(
         long correlationId,
-        Role role,
-        State state,
         String sourceName,
         long sourceRef,
         String targetName,
         long targetRef,
         Map<String, String> headers)
     {
-        final Routable routable = routables.get(sourceName);
-        if (routable != null)
+        if (unroute(sourceName, sourceRef, targetName, targetRef, headers))
         {
-            routable.doUnroute(correlationId, sourceRef, targetName, targetRef, headers);
+            workers.forEach(w -> w.execute(r -> r.unroute(sourceName, sourceRef, targetName, targetRef, headers)));
+            routesChanged = true;
+
+            conductor.onUnroutedResponse(correlationId);
         }
         else
         {
@@ -113,19 +255,379 @@ public final class Router extends Nukleus.Composite
         }
     }
 
+    private void onRoutes(
+        long correlationId,
+        List<RouteEntry> routes,
+        List<RouteEntry> unroutes)
+    {
+        final List<CompletableFuture<?>> prepared = new ArrayList<>();
+
+        for (RouteEntry route : routes)
+        {
+            final long sourceRef = route.sourceRef();
+            if (sourceRef == 0L || RouteKind.match(sourceRef) != RouteKind.valueOf(route.role(), route.state()))
+            {
+                conductor.onErrorResponse(correlationId);
+                return;
+            }
+
+            prepared.add(context.targetLayouts().prepare(route.source(), route.target()));
+        }
+
+        final Runnable routesNow = () -> doRoutesNow(correlationId, routes, unroutes);
+        final CompletableFuture<?> preparedAll = CompletableFuture.allOf(prepared.toArray(new CompletableFuture<?>[0]));
+
+        runWhenPrepared(preparedAll, routesNow);
+    }
+
+    private void onStreams(
+        long correlationId)
+    {
+        final List<StreamEntry> entries = new ArrayList<>();
+        final int[] pending = { workers.size() + 1 };
+
+        final Consumer<List<StreamEntry>> onCollected = collected ->
+        {
+            entries.addAll(collected);
+            if (--pending[0] == 0)
+            {
+                conductor.onStreamsResponse(correlationId, entries);
+            }
+        };
+
+        collectStreams(onCollected);
+
+        for (Worker worker : workers)
+        {
+            worker.execute(r -> r.collectStreams(collected -> defer(() -> onCollected.accept(collected))));
+        }
+    }
+
     public void onReadable(
         Path sourcePath)
     {
-        String sourceName = source(sourcePath);
-        Routable routable = routables.computeIfAbsent(sourceName, this::newRoutable);
         String partitionName = sourcePath.getFileName().toString();
-        routable.onReadable(partitionName);
+        int shard = shard(partitionName);
+        if (shard == 0)
+        {
+            String sourceName = source(sourcePath);
+            Routable routable = routables.computeIfAbsent(sourceName, this::newRoutable);
+            routable.onReadable(partitionName);
+        }
+        else
+        {
+            workers.get(shard - 1).execute(r -> r.onReadable(sourcePath));
+        }
     }
 
     public void onExpired(
         Path sourcePath)
     {
-        // TODO:
+        String partitionName = sourcePath.getFileName().toString();
+        int shard = shard(partitionName);
+        if (shard != 0)
+        {
+            workers.get(shard - 1).execute(r -> r.onExpired(sourcePath));
+            return;
+        }
+
+        String sourceName = source(sourcePath);
+        Routable routable = routables.get(sourceName);
+        if (routable != null)
+        {
+            routable.onExpired(partitionName);
+
+            if (routable.isEmpty())
+            {
+                routables.remove(sourceName);
+
+                try
+                {
+                    exclude(routable).close();
+                }
+                catch (Exception ex)
+                {
+                    LangUtil.rethrowUnchecked(ex);
+                }
+            }
+        }
+    }
+
+    @Override
+    public int process()
+    {
+        final int workCount = deferred.drain(Runnable::run) + super.process() + collectStreams();
+        supplyStreamId.flush();
+
+        if (routesChanged)
+        {
+            routesChanged = false;
+            storeSnapshot();
+        }
+
+        return workCount;
+    }
+
+    @Override
+    public void close() throws Exception
+    {
+        for (Worker worker : workers)
+        {
+            worker.close();
+        }
+
+        super.close();
+
+        if (snapshot != null)
+        {
+            snapshot.close();
+        }
+    }
+
+    void route(
+        String sourceName,
+        long sourceRef,
+        String targetName,
+        long targetRef,
+        Map<String, String> headers)
+    {
+        Routable routable = routables.computeIfAbsent(sourceName, this::newRoutable);
+        routable.doRoute(sourceRef, targetName, targetRef, headers);
+    }
+
+    boolean unroute(
+        String sourceName,
+        long sourceRef,
+        String targetName,
+        long targetRef,
+        Map<String, String> headers)
+    {
+        final Routable routable = routables.get(sourceName);
+        return routable != null && routable.doUnroute(sourceRef, targetName, targetRef, headers);
+    }
+
+    boolean routes(
+        List<RouteEntry> routes,
+        List<RouteEntry> unroutes)
+    {
+        bySource(routes).forEach((sourceName, entries) ->
+            routables.computeIfAbsent(sourceName, this::newRoutable).doRoutes(entries));
+
+        boolean unrouted = true;
+        for (Map.Entry<String, List<RouteEntry>> entries : bySource(unroutes).entrySet())
+        {
+            final Routable routable = routables.get(entries.getKey());
+            unrouted &= routable != null && routable.doUnroutes(entries.getValue());
+        }
+
+        return unrouted;
+    }
+
+    void collectStreams(
+        Consumer<List<StreamEntry>> onCollected)
+    {
+        streamsCollections.addLast(new StreamsCollection(new StreamsCollector(routables.values()), onCollected));
+    }
+
+    private void doRoutesNow(
+        long correlationId,
+        List<RouteEntry> routes,
+        List<RouteEntry> unroutes)
+    {
+        if (!canUnroute(routes, unroutes))
+        {
+            conductor.onErrorResponse(correlationId);
+            return;
+        }
+
+        try
+        {
+            final boolean unrouted = routes(routes, unroutes);
+            workers.forEach(w -> w.execute(r -> r.routes(routes, unroutes)));
+            routesChanged = true;
+
+            if (unrouted)
+            {
+                conductor.onRoutesResponse(correlationId);
+            }
+            else
+            {
+                conductor.onErrorResponse(correlationId);
+            }
+        }
+        catch (Exception ex)
+        {
+            conductor.onErrorResponse(correlationId);
+            LangUtil.rethrowUnchecked(ex);
+        }
+    }
+
+    private void doRouteNow(
+        long correlationId,
+        String sourceName,
+        long sourceRef,
+        String targetName,
+        long targetRef,
+        Map<String, String> headers)
+    {
+        try
+        {
+            route(sourceName, sourceRef, targetName, targetRef, headers);
+            workers.forEach(w -> w.execute(r -> r.route(sourceName, sourceRef, targetName, targetRef, headers)));
+            routesChanged = true;
+
+            conductor.onRoutedResponse(correlationId, sourceRef);
+        }
+        catch (Exception ex)
+        {
+            conductor.onErrorResponse(correlationId);
+            LangUtil.rethrowUnchecked(ex);
+        }
+    }
+
+    private boolean canUnroute(
+        List<RouteEntry> routes,
+        List<RouteEntry> unroutes)
+    {
+        final Map<String, List<RouteEntry>> routesBySource = bySource(routes);
+
+        for (Map.Entry<String, List<RouteEntry>> entries : bySource(unroutes).entrySet())
+        {
+            final String sourceName = entries.getKey();
+            final List<RouteEntry> candidates = new ArrayList<>(routesBySource.getOrDefault(sourceName, Collections.emptyList()));
+
+            final Routable routable = routables.get(sourceName);
+            if (routable != null)
+            {
+                routable.forEachRoute(route -> candidates.add(newRouteEntry(route)));
+            }
+
+            for (RouteEntry unroute : entries.getValue())
+            {
+                if (!candidates.removeIf(candidate -> unrouteMatches(unroute, candidate)))
+                {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private void storeSnapshot()
+    {
+        if (snapshot != null)
+        {
+            final List<RouteEntry> entries = new ArrayList<>();
+            for (Routable routable : routables.values())
+            {
+                routable.forEachRoute(route -> entries.add(newRouteEntry(route)));
+            }
+
+            snapshot.store(entries);
+        }
+    }
+
+    private void submit(
+        Runnable command)
+    {
+        if (preparing)
+        {
+            queuedCommands.addLast(command);
+        }
+        else
+        {
+            command.run();
+        }
+    }
+
+    private void runWhenPrepared(
+        CompletableFuture<?> prepared,
+        Runnable command)
+    {
+        if (prepared.isDone())
+        {
+            command.run();
+        }
+        else
+        {
+            // later commands wait behind this one, so they still apply in the order received
+            preparing = true;
+            prepared.whenComplete((r, ex) -> defer(() ->
+            {
+                preparing = false;
+                command.run();
+
+                while (!preparing && !queuedCommands.isEmpty())
+                {
+                    queuedCommands.removeFirst().run();
+                }
+            }));
+        }
+    }
+
+    private int collectStreams()
+    {
+        final StreamsCollection collection = streamsCollections.peekFirst();
+        if (collection == null)
+        {
+            return 0;
+        }
+
+        final StreamsCollector collector = collection.collector;
+        final int workCount = collector.collect(STREAMS_PAGE_SIZE);
+
+        if (collector.isComplete())
+        {
+            streamsCollections.removeFirst();
+            collection.onCollected.accept(collector.entries());
+        }
+
+        return workCount;
+    }
+
+    private void defer(
+        Runnable command)
+    {
+        while (!deferred.offer(command))
+        {
+            Thread.yield();
+        }
+    }
+
+    private int shard(
+        String partitionName)
+    {
+        return workers.isEmpty() ? 0 : Math.floorMod(partitionName.hashCode(), workers.size() + 1);
+    }
+
+    private static Map<String, List<RouteEntry>> bySource(
+        List<RouteEntry> entries)
+    {
+        final Map<String, List<RouteEntry>> entriesBySource = new LinkedHashMap<>();
+        for (RouteEntry entry : entries)
+        {
+            entriesBySource.computeIfAbsent(entry.source(), s -> new ArrayList<>()).add(entry);
+        }
+        return entriesBySource;
+    }
+
+    private static RouteEntry newRouteEntry(
+        Route route)
+    {
+        final RouteKind kind = RouteKind.match(route.sourceRef());
+        return new RouteEntry(kind.role(), kind.state(), route.source(), route.sourceRef(),
+                              route.target().name(), route.targetRef(), route.headers());
+    }
+
+    private static boolean unrouteMatches(
+        RouteEntry unroute,
+        RouteEntry route)
+    {
+        return unroute.sourceRef() == route.sourceRef() &&
+               unroute.target().equals(route.target()) &&
+               unroute.targetRef() == route.targetRef() &&
+               unroute.headers().entrySet().containsAll(route.headers().entrySet());
     }
 
     private static String source(
@@ -145,7 +647,21 @@ public final class Router extends Nukleus.Composite
     private Routable newRoutable(
         String sourceName)
     {
-        return include(new Routable(context, conductor, sourceName,
-                                    correlations::put, correlations::get, correlations::remove));
+        return include(new Routable(context, sourceName, workerIndex, supplyStreamId,
+                                    correlateNew, correlateEstablished, lookupEstablished));
+    }
+
+    private static final class StreamsCollection
+    {
+        private final StreamsCollector collector;
+        private final Consumer<List<StreamEntry>> onCollected;
+
+        private StreamsCollection(
+            StreamsCollector collector,
+            Consumer<List<StreamEntry>> onCollected)
+        {
+            this.collector = collector;
+            this.onCollected = onCollected;
+        }
     }
 }
@@ -0,0 +1,65 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.router;
+
+import java.util.function.LongSupplier;
+
+import org.agrona.concurrent.status.AtomicCounter;
+
+public final class StreamIdAllocator implements LongSupplier
+{
+    public static final int BLOCK_SIZE_DEFAULT = 4096;
+
+    private final AtomicCounter streamsReserved;
+    private final AtomicCounter streamsSourced;
+    private final int blockSize;
+
+    private long nextId;
+    private long limitId;
+    private long unflushed;
+
+    public StreamIdAllocator(
+        AtomicCounter streamsReserved,
+        AtomicCounter streamsSourced,
+        int blockSize)
+    {
+        this.streamsReserved = streamsReserved;
+        this.streamsSourced = streamsSourced;
+        this.blockSize = blockSize;
+    }
+
+    @Override
+    public long getAsLong()
+    {
+        if (nextId == limitId)
+        {
+            nextId = streamsReserved.add(blockSize);
+            limitId = nextId + blockSize;
+        }
+
+        unflushed++;
+        return nextId++;
+    }
+
+    public void flush()
+    {
+        if (unflushed != 0L)
+        {
+            streamsSourced.add(unflushed);
+            unflushed = 0L;
+        }
+    }
+}
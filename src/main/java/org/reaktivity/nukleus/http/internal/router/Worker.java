@@ -0,0 +1,100 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.router;
+
+import java.util.function.Consumer;
+
+import org.agrona.LangUtil;
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.AgentRunner;
+import org.agrona.concurrent.OneToOneConcurrentArrayQueue;
+import org.reaktivity.nukleus.http.internal.Context;
+import org.reaktivity.nukleus.http.internal.util.DutyCycle;
+
+public final class Worker implements Agent, AutoCloseable
+{
+    private static final int COMMAND_QUEUE_CAPACITY = 1024;
+
+    private final Router router;
+    private final OneToOneConcurrentArrayQueue<Consumer<Router>> commands;
+    private final Consumer<Consumer<Router>> executeCommand;
+    private final DutyCycle dutyCycle;
+    private final AgentRunner runner;
+
+    public Worker(
+        Context context,
+        Router router)
+    {
+        this.router = router;
+        this.commands = new OneToOneConcurrentArrayQueue<>(COMMAND_QUEUE_CAPACITY);
+        this.executeCommand = this::executeCommand;
+        this.dutyCycle = context.newDutyCycle();
+        this.runner = new AgentRunner(context.supplyIdleStrategy(), context.errorHandler(), null, this);
+    }
+
+    public Worker start()
+    {
+        AgentRunner.startOnThread(runner);
+        return this;
+    }
+
+    @Override
+    public String roleName()
+    {
+        return String.format("http-%s", router.name());
+    }
+
+    @Override
+    public int doWork() throws Exception
+    {
+        dutyCycle.begin();
+        return dutyCycle.record(commands.drain(executeCommand) + router.process());
+    }
+
+    @Override
+    public void onClose()
+    {
+        try
+        {
+            router.close();
+        }
+        catch (Exception ex)
+        {
+            LangUtil.rethrowUnchecked(ex);
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        runner.close();
+    }
+
+    void execute(
+        Consumer<Router> command)
+    {
+        while (!commands.offer(command))
+        {
+            Thread.yield();
+        }
+    }
+
+    private void executeCommand(
+        Consumer<Router> command)
+    {
+        command.accept(router);
+    }
+}
@@ -0,0 +1,101 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.util;
+
+import java.util.concurrent.locks.LockSupport;
+
+import org.agrona.concurrent.IdleStrategy;
+
+// spins, then yields, then parks with backoff, spinning for about as long as recent idle gaps lasted
+public final class AdaptiveIdleStrategy implements IdleStrategy
+{
+    private final int maxSpins;
+    private final int maxYields;
+    private final long minParkPeriodNs;
+    private final long maxParkPeriodNs;
+
+    private int idleCount;
+    private int averageGap;
+    private int spinLimit;
+    private long parkPeriodNs;
+
+    public AdaptiveIdleStrategy(
+        int maxSpins,
+        int maxYields,
+        long minParkPeriodNs,
+        long maxParkPeriodNs)
+    {
+        this.maxSpins = maxSpins;
+        this.maxYields = maxYields;
+        this.minParkPeriodNs = minParkPeriodNs;
+        this.maxParkPeriodNs = maxParkPeriodNs;
+        this.spinLimit = maxSpins;
+        this.parkPeriodNs = minParkPeriodNs;
+    }
+
+    @Override
+    public void idle(
+        int workCount)
+    {
+        if (workCount > 0)
+        {
+            if (idleCount != 0)
+            {
+                adapt(idleCount);
+            }
+            reset();
+        }
+        else
+        {
+            idle();
+        }
+    }
+
+    @Override
+    public void idle()
+    {
+        final int count = idleCount++;
+
+        if (count < spinLimit)
+        {
+            // spin
+        }
+        else if (count < spinLimit + maxYields)
+        {
+            Thread.yield();
+        }
+        else
+        {
+            LockSupport.parkNanos(parkPeriodNs);
+            parkPeriodNs = Math.min(parkPeriodNs << 1, maxParkPeriodNs);
+        }
+    }
+
+    @Override
+    public void reset()
+    {
+        idleCount = 0;
+        parkPeriodNs = minParkPeriodNs;
+    }
+
+    private void adapt(
+        int gap)
+    {
+        // exponentially weighted moving average of idle cycles between bursts of work
+        averageGap = (averageGap * 7 + Math.min(gap, maxSpins)) >> 3;
+        spinLimit = Math.min(Math.max(averageGap << 1, 1), maxSpins);
+    }
+}
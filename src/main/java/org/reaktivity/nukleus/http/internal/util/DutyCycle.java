@@ -0,0 +1,106 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.util;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import org.agrona.concurrent.NanoClock;
+import org.agrona.concurrent.status.AtomicCounter;
+
+// accumulates busy and idle cycles per thread, publishing to the shared counters periodically
+// the gap between cycles, spent in the idle strategy, counts as idle time
+public final class DutyCycle
+{
+    private static final long FLUSH_INTERVAL_NANOS = MILLISECONDS.toNanos(1L);
+
+    private final AtomicCounter busyCycles;
+    private final AtomicCounter idleCycles;
+    private final AtomicCounter busyNanos;
+    private final AtomicCounter idleNanos;
+    private final NanoClock clock;
+
+    private long beginTime;
+    private long endTime;
+    private long lastFlushTime;
+    private long busyCycleCount;
+    private long idleCycleCount;
+    private long busyNanoCount;
+    private long idleNanoCount;
+
+    public DutyCycle(
+        AtomicCounter busyCycles,
+        AtomicCounter idleCycles,
+        AtomicCounter busyNanos,
+        AtomicCounter idleNanos,
+        NanoClock clock)
+    {
+        this.busyCycles = busyCycles;
+        this.idleCycles = idleCycles;
+        this.busyNanos = busyNanos;
+        this.idleNanos = idleNanos;
+        this.clock = clock;
+        this.beginTime = clock.nanoTime();
+        this.endTime = beginTime;
+        this.lastFlushTime = beginTime;
+    }
+
+    public void begin()
+    {
+        beginTime = clock.nanoTime();
+        idleNanoCount += beginTime - endTime;
+    }
+
+    public int record(
+        int workCount)
+    {
+        final long now = clock.nanoTime();
+        final long elapsed = now - beginTime;
+        endTime = now;
+
+        if (workCount != 0)
+        {
+            busyCycleCount++;
+            busyNanoCount += elapsed;
+        }
+        else
+        {
+            idleCycleCount++;
+            idleNanoCount += elapsed;
+        }
+
+        if (now - lastFlushTime >= FLUSH_INTERVAL_NANOS)
+        {
+            flush(now);
+        }
+
+        return workCount;
+    }
+
+    private void flush(
+        long now)
+    {
+        busyCycles.add(busyCycleCount);
+        idleCycles.add(idleCycleCount);
+        busyNanos.add(busyNanoCount);
+        idleNanos.add(idleNanoCount);
+
+        busyCycleCount = 0L;
+        idleCycleCount = 0L;
+        busyNanoCount = 0L;
+        idleNanoCount = 0L;
+        lastFlushTime = now;
+    }
+}
@@ -0,0 +1,155 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.util;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.reaktivity.nukleus.http.internal.layouts.TraceLayout.CHANNEL_OFFSET;
+import static org.reaktivity.nukleus.http.internal.layouts.TraceLayout.LENGTH_OFFSET;
+import static org.reaktivity.nukleus.http.internal.layouts.TraceLayout.NAME_LENGTH;
+import static org.reaktivity.nukleus.http.internal.layouts.TraceLayout.NAME_OFFSET;
+import static org.reaktivity.nukleus.http.internal.layouts.TraceLayout.POSITION_OFFSET;
+import static org.reaktivity.nukleus.http.internal.layouts.TraceLayout.RECORD_LENGTH;
+import static org.reaktivity.nukleus.http.internal.layouts.TraceLayout.SEQUENCE_OFFSET;
+import static org.reaktivity.nukleus.http.internal.layouts.TraceLayout.STREAM_ID_OFFSET;
+import static org.reaktivity.nukleus.http.internal.layouts.TraceLayout.TIMESTAMP_OFFSET;
+import static org.reaktivity.nukleus.http.internal.layouts.TraceLayout.TYPE_ID_OFFSET;
+import static org.reaktivity.nukleus.http.internal.layouts.TraceLayout.VALUE_OFFSET;
+
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.function.Consumer;
+
+import org.agrona.UnsafeAccess;
+import org.agrona.concurrent.AtomicBuffer;
+import org.reaktivity.nukleus.http.internal.layouts.TraceLayout;
+import org.reaktivity.nukleus.http.internal.types.stream.BeginFW;
+import org.reaktivity.nukleus.http.internal.types.stream.DataFW;
+import org.reaktivity.nukleus.http.internal.types.stream.EndFW;
+import org.reaktivity.nukleus.http.internal.types.stream.ResetFW;
+import org.reaktivity.nukleus.http.internal.types.stream.WindowFW;
+
+/**
+ * Decodes the records in a frame trace file, oldest first, one line per frame.
+ * <p>
+ * Usage: {@code FrameTraceReader <trace-file>}, for example {@code target/nukleus-itests/http/trace}.
+ */
+public final class FrameTraceReader
+{
+    private static final String[] CHANNEL_NAMES = { "source-streams", "source-throttle", "target-streams", "target-throttle" };
+
+    private final AtomicBuffer recordsBuffer;
+    private final AtomicBuffer trailerBuffer;
+    private final byte[] name = new byte[NAME_LENGTH];
+
+    public FrameTraceReader(
+        TraceLayout layout)
+    {
+        this.recordsBuffer = layout.recordsBuffer();
+        this.trailerBuffer = layout.trailerBuffer();
+    }
+
+    public int read(
+        Consumer<String> output)
+    {
+        final int capacity = recordsBuffer.capacity();
+        final long position = trailerBuffer.getLongVolatile(POSITION_OFFSET);
+
+        int count = 0;
+
+        for (long cursor = Math.max(0L, position - capacity); cursor < position; cursor += RECORD_LENGTH)
+        {
+            final int offset = (int) cursor & (capacity - 1);
+            final long sequence = cursor + RECORD_LENGTH;
+
+            if (recordsBuffer.getLongVolatile(offset + SEQUENCE_OFFSET) == sequence)
+            {
+                final String record = decode(offset);
+
+                // skip the record if a writer reclaimed it while it was being decoded
+                UnsafeAccess.UNSAFE.loadFence();
+                if (recordsBuffer.getLongVolatile(offset + SEQUENCE_OFFSET) == sequence)
+                {
+                    output.accept(record);
+                    count++;
+                }
+            }
+        }
+
+        return count;
+    }
+
+    private String decode(
+        int offset)
+    {
+        final int typeId = recordsBuffer.getInt(offset + TYPE_ID_OFFSET);
+        final int channel = recordsBuffer.getInt(offset + CHANNEL_OFFSET);
+
+        recordsBuffer.getBytes(offset + NAME_OFFSET, name);
+        int nameLength = 0;
+        while (nameLength < name.length && name[nameLength] != 0)
+        {
+            nameLength++;
+        }
+
+        return format("%d %-15s %-20s %-6s streamId=%016x length=%d value=%d",
+                recordsBuffer.getLong(offset + TIMESTAMP_OFFSET),
+                channel >= 0 && channel < CHANNEL_NAMES.length ? CHANNEL_NAMES[channel] : Integer.toString(channel),
+                new String(name, 0, nameLength, US_ASCII),
+                typeName(typeId),
+                recordsBuffer.getLong(offset + STREAM_ID_OFFSET),
+                recordsBuffer.getInt(offset + LENGTH_OFFSET),
+                recordsBuffer.getLong(offset + VALUE_OFFSET));
+    }
+
+    private static String typeName(
+        int typeId)
+    {
+        switch (typeId)
+        {
+        case BeginFW.TYPE_ID:
+            return "BEGIN";
+        case DataFW.TYPE_ID:
+            return "DATA";
+        case EndFW.TYPE_ID:
+            return "END";
+        case WindowFW.TYPE_ID:
+            return "WINDOW";
+        case ResetFW.TYPE_ID:
+            return "RESET";
+        default:
+            return format("0x%08x", typeId);
+        }
+    }
+
+    public static void main(
+        String... args)
+    {
+        if (args.length != 1)
+        {
+            throw new IllegalArgumentException("usage: FrameTraceReader <trace-file>");
+        }
+
+        final Path path = Paths.get(args[0]);
+        final PrintStream out = System.out;
+
+        try (TraceLayout layout = new TraceLayout.Builder().path(path).readonly(true).build())
+        {
+            new FrameTraceReader(layout).read(out::println);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.util;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.reaktivity.nukleus.http.internal.layouts.TraceLayout.CHANNEL_OFFSET;
+import static org.reaktivity.nukleus.http.internal.layouts.TraceLayout.LENGTH_OFFSET;
+import static org.reaktivity.nukleus.http.internal.layouts.TraceLayout.NAME_LENGTH;
+import static org.reaktivity.nukleus.http.internal.layouts.TraceLayout.NAME_OFFSET;
+import static org.reaktivity.nukleus.http.internal.layouts.TraceLayout.POSITION_OFFSET;
+import static org.reaktivity.nukleus.http.internal.layouts.TraceLayout.RECORD_LENGTH;
+import static org.reaktivity.nukleus.http.internal.layouts.TraceLayout.SEQUENCE_OFFSET;
+import static org.reaktivity.nukleus.http.internal.layouts.TraceLayout.STREAM_ID_OFFSET;
+import static org.reaktivity.nukleus.http.internal.layouts.TraceLayout.TIMESTAMP_OFFSET;
+import static org.reaktivity.nukleus.http.internal.layouts.TraceLayout.TYPE_ID_OFFSET;
+import static org.reaktivity.nukleus.http.internal.layouts.TraceLayout.VALUE_OFFSET;
+
+import java.util.Arrays;
+
+import org.agrona.DirectBuffer;
+import org.agrona.UnsafeAccess;
+import org.agrona.concurrent.AtomicBuffer;
+import org.reaktivity.nukleus.http.internal.layouts.TraceLayout;
+import org.reaktivity.nukleus.http.internal.types.stream.BeginFW;
+import org.reaktivity.nukleus.http.internal.types.stream.DataFW;
+import org.reaktivity.nukleus.http.internal.types.stream.FrameFW;
+import org.reaktivity.nukleus.http.internal.types.stream.WindowFW;
+
+/**
+ * Copies a fixed-length summary of each frame read or written by a single source or target into a {@link TraceLayout}.
+ * <p>
+ * The summary value is the reference id for BEGIN, the payload length for DATA and the update for WINDOW.
+ * Each record is guarded by its sequence, which is cleared before the fields are written and published last,
+ * so a reader can detect and skip a record that is overwritten while it is being read.
+ */
+public final class FrameTracer
+{
+    public static final int CHANNEL_SOURCE_STREAMS = 0;
+    public static final int CHANNEL_SOURCE_THROTTLE = 1;
+    public static final int CHANNEL_TARGET_STREAMS = 2;
+    public static final int CHANNEL_TARGET_THROTTLE = 3;
+
+    private final FrameFW frameRO = new FrameFW();
+    private final BeginFW beginRO = new BeginFW();
+    private final DataFW dataRO = new DataFW();
+    private final WindowFW windowRO = new WindowFW();
+
+    private final AtomicBuffer recordsBuffer;
+    private final AtomicBuffer trailerBuffer;
+    private final int mask;
+    private final byte[] name;
+
+    public FrameTracer(
+        TraceLayout layout,
+        String name)
+    {
+        this.recordsBuffer = layout.recordsBuffer();
+        this.trailerBuffer = layout.trailerBuffer();
+        this.mask = recordsBuffer.capacity() - 1;
+        this.name = Arrays.copyOf(name.getBytes(US_ASCII), NAME_LENGTH);
+    }
+
+    public void trace(
+        int channel,
+        int msgTypeId,
+        DirectBuffer buffer,
+        int index,
+        int length)
+    {
+        final long position = trailerBuffer.getAndAddLong(POSITION_OFFSET, RECORD_LENGTH);
+        final int offset = (int) position & mask;
+
+        frameRO.wrap(buffer, index, index + length);
+
+        recordsBuffer.putLongOrdered(offset + SEQUENCE_OFFSET, -1L);
+        UnsafeAccess.UNSAFE.storeFence();
+
+        recordsBuffer.putLong(offset + TIMESTAMP_OFFSET, System.nanoTime());
+        recordsBuffer.putLong(offset + STREAM_ID_OFFSET, frameRO.streamId());
+        recordsBuffer.putLong(offset + VALUE_OFFSET, value(msgTypeId, buffer, index, length));
+        recordsBuffer.putInt(offset + TYPE_ID_OFFSET, msgTypeId);
+        recordsBuffer.putInt(offset + LENGTH_OFFSET, length);
+        recordsBuffer.putInt(offset + CHANNEL_OFFSET, channel);
+        recordsBuffer.putBytes(offset + NAME_OFFSET, name);
+        recordsBuffer.putLongOrdered(offset + SEQUENCE_OFFSET, position + RECORD_LENGTH);
+    }
+
+    private long value(
+        int msgTypeId,
+        DirectBuffer buffer,
+        int index,
+        int length)
+    {
+        switch (msgTypeId)
+        {
+        case BeginFW.TYPE_ID:
+            return beginRO.wrap(buffer, index, index + length).referenceId();
+        case DataFW.TYPE_ID:
+            return dataRO.wrap(buffer, index, index + length).payload().length();
+        case WindowFW.TYPE_ID:
+            return windowRO.wrap(buffer, index, index + length).update();
+        default:
+            return 0L;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.util;
+
+import org.agrona.concurrent.status.AtomicCounter;
+import org.reaktivity.nukleus.http.internal.Counters;
+
+/**
+ * Fixed-bucket, log-linear histogram of nanosecond values, with one counter per bucket.
+ * <p>
+ * Each power of two between {@code 2^MIN_MAGNITUDE} and {@code 2^MAX_MAGNITUDE} is split into
+ * {@code 2^subBucketBits} linear buckets, with one bucket below and one above that range.
+ * A bucket is labelled with its exclusive upper bound in nanoseconds, or {@code inf} for the last bucket,
+ * so external tools can read it from the counters area while the nukleus is running.
+ * {@link #record(long)} uses ordered writes for a histogram with a single writer, while
+ * {@link #recordAtomic(long)} supports histograms recorded from more than one thread.
+ */
+public final class Histogram implements AutoCloseable
+{
+    private static final int MIN_MAGNITUDE = 10;
+    private static final int MAX_MAGNITUDE = 30;
+
+    public static final int MAX_SUB_BUCKET_BITS = MIN_MAGNITUDE;
+
+    private final Counters counters;
+    private final AtomicCounter[] buckets;
+    private final int subBucketBits;
+
+    private Histogram(
+        Counters counters,
+        AtomicCounter[] buckets,
+        int subBucketBits)
+    {
+        this.counters = counters;
+        this.buckets = buckets;
+        this.subBucketBits = subBucketBits;
+    }
+
+    public void record(
+        long value)
+    {
+        buckets[index(value, subBucketBits)].addOrdered(1L);
+    }
+
+    public void recordAtomic(
+        long value)
+    {
+        buckets[index(value, subBucketBits)].increment();
+    }
+
+    @Override
+    public void close()
+    {
+        counters.freeCounters(buckets);
+    }
+
+    public static Histogram newHistogram(
+        Counters counters,
+        String label,
+        int subBucketBits)
+    {
+        // null when the counters buffer is full, values are not recorded
+        final AtomicCounter[] buckets = counters.newCounters(label, bucketNames(subBucketBits));
+        return buckets != null ? new Histogram(counters, buckets, subBucketBits) : null;
+    }
+
+    static int bucketCount(
+        int subBucketBits)
+    {
+        return 2 + ((MAX_MAGNITUDE - MIN_MAGNITUDE) << subBucketBits);
+    }
+
+    static int index(
+        long value,
+        int subBucketBits)
+    {
+        if (value < 1L << MIN_MAGNITUDE)
+        {
+            return 0;
+        }
+
+        final int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        if (magnitude >= MAX_MAGNITUDE)
+        {
+            return bucketCount(subBucketBits) - 1;
+        }
+
+        final int subBucket = (int) (value >>> (magnitude - subBucketBits)) & ((1 << subBucketBits) - 1);
+        return 1 + ((magnitude - MIN_MAGNITUDE) << subBucketBits) + subBucket;
+    }
+
+    static String[] bucketNames(
+        int subBucketBits)
+    {
+        final String[] names = new String[bucketCount(subBucketBits)];
+        for (int i = 0; i < names.length; i++)
+        {
+            names[i] = upperBoundLabel(i, subBucketBits);
+        }
+        return names;
+    }
+
+    private static String upperBoundLabel(
+        int index,
+        int subBucketBits)
+    {
+        if (index == 0)
+        {
+            return Long.toString(1L << MIN_MAGNITUDE);
+        }
+
+        if (index == bucketCount(subBucketBits) - 1)
+        {
+            return "inf";
+        }
+
+        final int magnitude = MIN_MAGNITUDE + ((index - 1) >> subBucketBits);
+        final int subBucket = (index - 1) & ((1 << subBucketBits) - 1);
+        return Long.toString((1L << magnitude) + ((subBucket + 1L) << (magnitude - subBucketBits)));
+    }
+}
@@ -0,0 +1,154 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.util;
+
+import static org.agrona.BitUtil.SIZE_OF_INT;
+import static org.agrona.BitUtil.align;
+
+import java.nio.ByteBuffer;
+
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.AtomicBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.status.AtomicCounter;
+import org.reaktivity.nukleus.http.internal.util.function.MessageWriter;
+
+// bounded off-heap FIFO of frames that did not fit in a ring, single threaded
+public final class OverflowQueue
+{
+    private static final int TYPE_ID_OFFSET = 0;
+    private static final int LENGTH_OFFSET = TYPE_ID_OFFSET + SIZE_OF_INT;
+    private static final int HEADER_LENGTH = LENGTH_OFFSET + SIZE_OF_INT;
+    private static final int ALIGNMENT = 8;
+    private static final int PADDING_TYPE_ID = -1;
+
+    private final int capacity;
+    private final int highWaterMark;
+    private final AtomicCounter framesSpilled;
+    private final AtomicCounter framesDropped;
+
+    private AtomicBuffer buffer;
+    private long head;
+    private long tail;
+
+    public OverflowQueue(
+        int capacity,
+        int maxMessageLength,
+        AtomicCounter framesSpilled,
+        AtomicCounter framesDropped)
+    {
+        // an empty queue always has room for the largest frame
+        this.capacity = Math.max(capacity, align(HEADER_LENGTH + maxMessageLength, ALIGNMENT));
+        this.highWaterMark = this.capacity >> 1;
+        this.framesSpilled = framesSpilled;
+        this.framesDropped = framesDropped;
+    }
+
+    public boolean isEmpty()
+    {
+        return head == tail;
+    }
+
+    public boolean isAboveHighWaterMark()
+    {
+        return tail - head > highWaterMark;
+    }
+
+    public boolean write(
+        MessageWriter ring,
+        int msgTypeId,
+        DirectBuffer srcBuffer,
+        int srcIndex,
+        int length)
+    {
+        return (isEmpty() && ring.write(msgTypeId, srcBuffer, srcIndex, length)) ||
+                offer(msgTypeId, srcBuffer, srcIndex, length);
+    }
+
+    public boolean offer(
+        int msgTypeId,
+        DirectBuffer srcBuffer,
+        int srcIndex,
+        int length)
+    {
+        if (isEmpty())
+        {
+            head = 0L;
+            tail = 0L;
+        }
+
+        final int recordLength = align(HEADER_LENGTH + length, ALIGNMENT);
+        final int tailIndex = (int) (tail % capacity);
+        final int toBufferEndLength = capacity - tailIndex;
+        final int padding = recordLength > toBufferEndLength ? toBufferEndLength : 0;
+
+        if (padding + recordLength > capacity - (int) (tail - head))
+        {
+            framesDropped.increment();
+            return false;
+        }
+
+        if (buffer == null)
+        {
+            buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(capacity));
+        }
+
+        if (padding != 0)
+        {
+            buffer.putInt(tailIndex + TYPE_ID_OFFSET, PADDING_TYPE_ID);
+            buffer.putInt(tailIndex + LENGTH_OFFSET, padding);
+        }
+
+        final int recordIndex = (int) ((tail + padding) % capacity);
+        buffer.putInt(recordIndex + TYPE_ID_OFFSET, msgTypeId);
+        buffer.putInt(recordIndex + LENGTH_OFFSET, length);
+        buffer.putBytes(recordIndex + HEADER_LENGTH, srcBuffer, srcIndex, length);
+
+        tail += padding + recordLength;
+        framesSpilled.increment();
+
+        return true;
+    }
+
+    public int drainTo(
+        MessageWriter ring)
+    {
+        int drainCount = 0;
+
+        while (head != tail)
+        {
+            final int headIndex = (int) (head % capacity);
+            final int msgTypeId = buffer.getInt(headIndex + TYPE_ID_OFFSET);
+            final int length = buffer.getInt(headIndex + LENGTH_OFFSET);
+
+            if (msgTypeId == PADDING_TYPE_ID)
+            {
+                head += length;
+            }
+            else if (ring.write(msgTypeId, buffer, headIndex + HEADER_LENGTH, length))
+            {
+                head += align(HEADER_LENGTH + length, ALIGNMENT);
+                drainCount++;
+            }
+            else
+            {
+                break;
+            }
+        }
+
+        return drainCount;
+    }
+}
@@ -0,0 +1,239 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.util;
+
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Immutable map from {@code long} keys to values, where each change returns a new map that shares every
+ * node not on the path to the changed key.
+ * <p>
+ * Keys are spread by a bijective hash and indexed five bits per level, so a change copies at most one
+ * small node per level instead of the whole map, and a lookup follows one array slot per level.
+ */
+public final class PersistentLong2ObjectMap<V>
+{
+    private static final int BITS_PER_LEVEL = 5;
+    private static final int NODE_LENGTH = 1 << BITS_PER_LEVEL;
+    private static final int NODE_MASK = NODE_LENGTH - 1;
+
+    private static final PersistentLong2ObjectMap<?> EMPTY = new PersistentLong2ObjectMap<>(new Object[NODE_LENGTH], 0);
+
+    private final Object[] root;
+    private final int size;
+
+    private PersistentLong2ObjectMap(
+        Object[] root,
+        int size)
+    {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <V> PersistentLong2ObjectMap<V> empty()
+    {
+        return (PersistentLong2ObjectMap<V>) EMPTY;
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(
+        long key)
+    {
+        final long hash = hash(key);
+
+        Object slot = root[index(hash, 0)];
+        for (int shift = BITS_PER_LEVEL; slot instanceof Object[]; shift += BITS_PER_LEVEL)
+        {
+            slot = ((Object[]) slot)[index(hash, shift)];
+        }
+
+        final Entry<V> entry = (Entry<V>) slot;
+        return entry != null && entry.key == key ? entry.value : null;
+    }
+
+    public PersistentLong2ObjectMap<V> with(
+        long key,
+        V value)
+    {
+        Objects.requireNonNull(value);
+
+        final boolean added = get(key) == null;
+        final Object[] newRoot = with(root, new Entry<>(key, hash(key), value), 0);
+        return new PersistentLong2ObjectMap<>(newRoot, added ? size + 1 : size);
+    }
+
+    public PersistentLong2ObjectMap<V> without(
+        long key)
+    {
+        if (get(key) == null)
+        {
+            return this;
+        }
+
+        final Object[] newRoot = (Object[]) without(root, key, hash(key), 0);
+        return new PersistentLong2ObjectMap<>(newRoot, size - 1);
+    }
+
+    public void forEach(
+        Consumer<V> action)
+    {
+        forEach(root, action);
+    }
+
+    private static Object[] with(
+        Object[] node,
+        Entry<?> entry,
+        int shift)
+    {
+        final int index = index(entry.hash, shift);
+        final Object[] newNode = node.clone();
+        final Object slot = node[index];
+
+        if (slot == null)
+        {
+            newNode[index] = entry;
+        }
+        else if (slot instanceof Entry)
+        {
+            final Entry<?> existing = (Entry<?>) slot;
+            newNode[index] = existing.key == entry.key ? entry : split(existing, entry, shift + BITS_PER_LEVEL);
+        }
+        else
+        {
+            newNode[index] = with((Object[]) slot, entry, shift + BITS_PER_LEVEL);
+        }
+
+        return newNode;
+    }
+
+    private static Object[] split(
+        Entry<?> entry1,
+        Entry<?> entry2,
+        int shift)
+    {
+        // distinct keys have distinct hashes, so they part at or before the last level
+        final Object[] node = new Object[NODE_LENGTH];
+        final int index1 = index(entry1.hash, shift);
+        final int index2 = index(entry2.hash, shift);
+
+        if (index1 == index2)
+        {
+            node[index1] = split(entry1, entry2, shift + BITS_PER_LEVEL);
+        }
+        else
+        {
+            node[index1] = entry1;
+            node[index2] = entry2;
+        }
+
+        return node;
+    }
+
+    private static Object without(
+        Object[] node,
+        long key,
+        long hash,
+        int shift)
+    {
+        final int index = index(hash, shift);
+        final Object slot = node[index];
+        final Object newSlot = slot instanceof Entry ? null : without((Object[]) slot, key, hash, shift + BITS_PER_LEVEL);
+
+        final Object[] newNode = node.clone();
+        newNode[index] = newSlot;
+
+        // a node left with a single entry collapses into its parent slot
+        Object remaining = null;
+        int count = 0;
+        for (Object candidate : newNode)
+        {
+            if (candidate != null)
+            {
+                remaining = candidate;
+                count++;
+            }
+        }
+
+        return shift != 0 && count == 1 && remaining instanceof Entry ? remaining : newNode;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> void forEach(
+        Object[] node,
+        Consumer<V> action)
+    {
+        for (Object slot : node)
+        {
+            if (slot instanceof Entry)
+            {
+                action.accept(((Entry<V>) slot).value);
+            }
+            else if (slot != null)
+            {
+                forEach((Object[]) slot, action);
+            }
+        }
+    }
+
+    private static int index(
+        long hash,
+        int shift)
+    {
+        return (int) (hash >>> shift) & NODE_MASK;
+    }
+
+    private static long hash(
+        long key)
+    {
+        // MurmurHash3 finalizer, a bijection on 64 bits
+        long hash = key;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static final class Entry<V>
+    {
+        private final long key;
+        private final long hash;
+        private final V value;
+
+        private Entry(
+            long key,
+            long hash,
+            V value)
+        {
+            this.key = key;
+            this.hash = hash;
+            this.value = value;
+        }
+    }
+}
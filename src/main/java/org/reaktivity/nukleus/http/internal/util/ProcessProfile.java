@@ -0,0 +1,82 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.util;
+
+import org.agrona.concurrent.status.AtomicCounter;
+import org.reaktivity.nukleus.Nukleus;
+import org.reaktivity.nukleus.http.internal.Counters;
+
+/**
+ * Sampled timing of {@link Nukleus#process()} for a single component.
+ * <p>
+ * Each sampled call adds to the {@code samples}, {@code work} and {@code nanos} counters under the component label,
+ * so the share of loop time used by each component can be compared while the nukleus is running.
+ */
+public final class ProcessProfile implements AutoCloseable
+{
+    private static final String[] COUNTER_NAMES = { "samples", "work", "nanos" };
+
+    private final Counters counters;
+    private final AtomicCounter samples;
+    private final AtomicCounter work;
+    private final AtomicCounter nanos;
+
+    private ProcessProfile(
+        Counters counters,
+        AtomicCounter[] allocated)
+    {
+        this.counters = counters;
+        this.samples = allocated[0];
+        this.work = allocated[1];
+        this.nanos = allocated[2];
+    }
+
+    public int process(
+        Nukleus component)
+    {
+        final long startAt = System.nanoTime();
+        final int workCount = component.process();
+        final long elapsed = System.nanoTime() - startAt;
+
+        samples.addOrdered(1L);
+        work.addOrdered(workCount);
+        nanos.addOrdered(elapsed);
+
+        return workCount;
+    }
+
+    @Override
+    public void close()
+    {
+        counters.freeCounters(samples, work, nanos);
+    }
+
+    public static int process(
+        ProcessProfile profile,
+        Nukleus component)
+    {
+        return profile != null ? profile.process(component) : component.process();
+    }
+
+    public static ProcessProfile newProcessProfile(
+        Counters counters,
+        String label)
+    {
+        // null when the counters buffer is full, component is not profiled
+        final AtomicCounter[] allocated = counters.newCounters(label, COUNTER_NAMES);
+        return allocated != null ? new ProcessProfile(counters, allocated) : null;
+    }
+}
@@ -0,0 +1,219 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.util;
+
+import static org.agrona.BitUtil.align;
+import static org.agrona.concurrent.ringbuffer.OneToOneRingBuffer.PADDING_MSG_TYPE_ID;
+import static org.agrona.concurrent.ringbuffer.RecordDescriptor.ALIGNMENT;
+import static org.agrona.concurrent.ringbuffer.RecordDescriptor.HEADER_LENGTH;
+import static org.agrona.concurrent.ringbuffer.RecordDescriptor.checkTypeId;
+import static org.agrona.concurrent.ringbuffer.RecordDescriptor.encodedMsgOffset;
+import static org.agrona.concurrent.ringbuffer.RecordDescriptor.makeHeader;
+import static org.agrona.concurrent.ringbuffer.RingBufferDescriptor.HEAD_CACHE_POSITION_OFFSET;
+import static org.agrona.concurrent.ringbuffer.RingBufferDescriptor.HEAD_POSITION_OFFSET;
+import static org.agrona.concurrent.ringbuffer.RingBufferDescriptor.TAIL_POSITION_OFFSET;
+
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.AtomicBuffer;
+import org.agrona.concurrent.ringbuffer.RingBuffer;
+import org.reaktivity.nukleus.http.internal.util.function.MessageWriter;
+
+// follows the OneToOneRingBuffer.write record protocol, single producer only
+public final class RingBufferClaim implements MessageWriter
+{
+    private final AtomicBuffer buffer;
+    private final int capacity;
+    private final int maxMsgLength;
+    private final int tailPositionIndex;
+    private final int headCachePositionIndex;
+    private final int headPositionIndex;
+    private final boolean batching;
+
+    private boolean batchOpen;
+    private long batchTail;
+    private int batchGateIndex;
+    private long batchGateHeader;
+
+    private long claimTail;
+    private int claimIndex;
+    private int claimPadding;
+
+    public RingBufferClaim(
+        RingBuffer ringBuffer,
+        boolean batching)
+    {
+        this.buffer = ringBuffer.buffer();
+        this.capacity = ringBuffer.capacity();
+        this.maxMsgLength = ringBuffer.maxMsgLength();
+        this.tailPositionIndex = capacity + TAIL_POSITION_OFFSET;
+        this.headCachePositionIndex = capacity + HEAD_CACHE_POSITION_OFFSET;
+        this.headPositionIndex = capacity + HEAD_POSITION_OFFSET;
+        this.batching = batching;
+    }
+
+    public AtomicBuffer buffer()
+    {
+        return buffer;
+    }
+
+    public int maxMsgLength()
+    {
+        return maxMsgLength;
+    }
+
+    public int tryClaim(
+        int maxLength)
+    {
+        if (maxLength > maxMsgLength)
+        {
+            throw new IllegalArgumentException(String.format("encoded message exceeds maxMsgLength of %d, length=%d",
+                    maxMsgLength, maxLength));
+        }
+
+        final int requiredCapacity = align(maxLength + HEADER_LENGTH, ALIGNMENT) + HEADER_LENGTH;
+        final int mask = capacity - 1;
+
+        long head = buffer.getLong(headCachePositionIndex);
+        final long tail = batchOpen ? batchTail : buffer.getLong(tailPositionIndex);
+
+        if (requiredCapacity > capacity - (int)(tail - head))
+        {
+            head = buffer.getLongVolatile(headPositionIndex);
+            if (requiredCapacity > capacity - (int)(tail - head))
+            {
+                return -1;
+            }
+
+            buffer.putLong(headCachePositionIndex, head);
+        }
+
+        int padding = 0;
+        int recordIndex = (int) tail & mask;
+        final int toBufferEndLength = capacity - recordIndex;
+
+        if (requiredCapacity > toBufferEndLength)
+        {
+            int headIndex = (int) head & mask;
+            if (requiredCapacity > headIndex)
+            {
+                head = buffer.getLongVolatile(headPositionIndex);
+                headIndex = (int) head & mask;
+                if (requiredCapacity > headIndex)
+                {
+                    return -1;
+                }
+
+                buffer.putLong(headCachePositionIndex, head);
+            }
+
+            padding = toBufferEndLength;
+            recordIndex = 0;
+        }
+
+        this.claimTail = tail;
+        this.claimIndex = recordIndex;
+        this.claimPadding = padding;
+
+        return encodedMsgOffset(recordIndex);
+    }
+
+    public void commit(
+        int msgTypeId,
+        int length)
+    {
+        checkTypeId(msgTypeId);
+
+        final int recordLength = length + HEADER_LENGTH;
+        final int alignedRecordLength = align(recordLength, ALIGNMENT);
+        final int recordIndex = claimIndex;
+        final int padding = claimPadding;
+        final int tailIndex = (int) claimTail & (capacity - 1);
+        final long header = makeHeader(recordLength, msgTypeId);
+        final long newTail = claimTail + alignedRecordLength + padding;
+
+        buffer.putLong(recordIndex + alignedRecordLength, 0L);
+
+        if (batching)
+        {
+            // the reader stops at the first header of the batch until flush publishes it
+            final int gateIndex = padding != 0 ? tailIndex : recordIndex;
+            final long gateHeader = padding != 0 ? makeHeader(padding, PADDING_MSG_TYPE_ID) : header;
+
+            if (padding != 0)
+            {
+                buffer.putLong(recordIndex, header);
+            }
+
+            if (batchOpen)
+            {
+                buffer.putLong(gateIndex, gateHeader);
+            }
+            else
+            {
+                batchGateIndex = gateIndex;
+                batchGateHeader = gateHeader;
+                batchOpen = true;
+            }
+
+            batchTail = newTail;
+        }
+        else
+        {
+            buffer.putLongOrdered(recordIndex, header);
+
+            if (padding != 0)
+            {
+                // publish padding last, nothing is visible to the reader before commit
+                buffer.putLongOrdered(tailIndex, makeHeader(padding, PADDING_MSG_TYPE_ID));
+            }
+
+            buffer.putLongOrdered(tailPositionIndex, newTail);
+        }
+    }
+
+    public int flush()
+    {
+        if (!batchOpen)
+        {
+            return 0;
+        }
+
+        buffer.putLongOrdered(batchGateIndex, batchGateHeader);
+        buffer.putLongOrdered(tailPositionIndex, batchTail);
+        batchOpen = false;
+
+        return 1;
+    }
+
+    @Override
+    public boolean write(
+        int msgTypeId,
+        DirectBuffer srcBuffer,
+        int srcIndex,
+        int length)
+    {
+        final int index = tryClaim(length);
+        if (index == -1)
+        {
+            return false;
+        }
+
+        buffer.putBytes(index, srcBuffer, srcIndex, length);
+        commit(msgTypeId, length);
+
+        return true;
+    }
+}
@@ -18,22 +18,29 @@ package org.reaktivity.nukleus.http.internal.watcher;
 import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
 import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
 import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
-import static java.util.Arrays.stream;
+import static java.util.logging.Level.WARNING;
 
 import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardWatchEventKinds;
 import java.nio.file.WatchEvent;
 import java.nio.file.WatchKey;
 import java.nio.file.WatchService;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.NavigableSet;
+import java.util.TreeSet;
 import java.util.function.Consumer;
+import java.util.logging.Logger;
 
+import org.agrona.CloseHelper;
 import org.agrona.LangUtil;
+import org.agrona.concurrent.NanoClock;
 import org.reaktivity.nukleus.Nukleus;
 import org.reaktivity.nukleus.Reaktive;
 import org.reaktivity.nukleus.http.internal.Context;
@@ -42,20 +49,36 @@ import org.reaktivity.nukleus.http.internal.router.Router;
 @Reaktive
 public final class Watcher implements Nukleus
 {
+    private static final int SYNC_SLICE_LENGTH = 256;
+
     private final WatchService service;
     private final Path streamsPath;
-    private final Set<Path> sourcePaths;
+    private final NavigableSet<Path> sourcePaths;
     private final Consumer<WatchEvent<?>> handleEvent;
+    private final NanoClock nanoClock;
+    private final long intervalNanos;
+    private final Logger logger;
 
-    private Router router;
+    private Consumer<Path> onReadable;
+    private Consumer<Path> onExpired;
     private WatchKey streamsKey;
+    private long nextPollTime;
+
+    private DirectoryStream<Path> syncStream;
+    private Iterator<Path> syncEntries;
+    private NavigableSet<Path> syncSnapshot;
+    private Path syncCursor;
 
     public Watcher(
         Context context)
     {
         this.service = context.watchService();
         this.streamsPath = context.streamsPath();
-        this.sourcePaths = new HashSet<>();
+        this.sourcePaths = new TreeSet<>();
+        this.nanoClock = context.nanoClock();
+        this.intervalNanos = context.watcherIntervalNanos();
+        this.logger = context.logger();
+        this.nextPollTime = nanoClock.nanoTime();
 
         Map<WatchEvent.Kind<?>, Consumer<WatchEvent<?>>> handlerMap = new HashMap<>();
         handlerMap.put(StandardWatchEventKinds.OVERFLOW, this::handleOverflow);
@@ -67,7 +90,15 @@ public final class Watcher implements Nukleus
     public void setRouter(
         Router router)
     {
-        this.router = router;
+        setHandlers(router::onReadable, router::onExpired);
+    }
+
+    void setHandlers(
+        Consumer<Path> onReadable,
+        Consumer<Path> onExpired)
+    {
+        this.onReadable = onReadable;
+        this.onExpired = onExpired;
     }
 
     @Override
@@ -79,10 +110,22 @@ public final class Watcher implements Nukleus
     @Override
     public int process()
     {
-        registerIfNecessary();
-
         int workCount = 0;
 
+        if (syncSnapshot != null)
+        {
+            workCount += syncWithFileSystem();
+        }
+
+        final long now = nanoClock.nanoTime();
+        if (now - nextPollTime < 0L)
+        {
+            return workCount;
+        }
+        nextPollTime = now + intervalNanos;
+
+        registerIfNecessary();
+
         WatchKey key = service.poll();
         if (key != null && key.isValid())
         {
@@ -98,6 +141,7 @@ public final class Watcher implements Nukleus
     @Override
     public void close() throws Exception
     {
+        CloseHelper.quietClose(syncStream);
         this.streamsKey = null;
     }
 
@@ -111,9 +155,14 @@ public final class Watcher implements Nukleus
     private void handleCreatePath(
         Path sourcePath)
     {
+        if (syncSnapshot != null)
+        {
+            syncSnapshot.add(sourcePath);
+        }
+
         if (sourcePaths.add(sourcePath))
         {
-            router.onReadable(sourcePath);
+            onReadable.accept(sourcePath);
         }
     }
 
@@ -129,14 +178,14 @@ public final class Watcher implements Nukleus
     {
         if (sourcePaths.remove(sourcePath))
         {
-            router.onExpired(sourcePath);
+            onExpired.accept(sourcePath);
         }
     }
 
     private void handleOverflow(
         WatchEvent<?> event)
     {
-        syncWithFileSystem();
+        startSyncWithFileSystem();
     }
 
     private void handleUnexpected(
@@ -153,7 +202,7 @@ public final class Watcher implements Nukleus
             {
                 streamsPath.toFile().mkdirs();
                 streamsKey = streamsPath.register(service, ENTRY_CREATE, ENTRY_DELETE, OVERFLOW);
-                syncWithFileSystem();
+                startSyncWithFileSystem();
             }
             catch (IOException ex)
             {
@@ -162,9 +211,82 @@ public final class Watcher implements Nukleus
         }
     }
 
-    private void syncWithFileSystem()
+    private void startSyncWithFileSystem()
+    {
+        CloseHelper.quietClose(syncStream);
+
+        try
+        {
+            syncStream = Files.newDirectoryStream(streamsPath);
+            syncEntries = syncStream.iterator();
+            syncSnapshot = new TreeSet<>();
+            syncCursor = null;
+        }
+        catch (IOException ex)
+        {
+            LangUtil.rethrowUnchecked(ex);
+        }
+    }
+
+    // reconciles a bounded slice per call, first listing the directory, then expiring paths missing from the listing
+    private int syncWithFileSystem()
+    {
+        int workCount = 0;
+
+        if (syncEntries != null)
+        {
+            try
+            {
+                while (workCount < SYNC_SLICE_LENGTH && syncEntries.hasNext())
+                {
+                    handleCreatePath(syncEntries.next().getFileName());
+                    workCount++;
+                }
+
+                if (!syncEntries.hasNext())
+                {
+                    CloseHelper.quietClose(syncStream);
+                    syncStream = null;
+                    syncEntries = null;
+                }
+            }
+            catch (DirectoryIteratorException ex)
+            {
+                // listing is incomplete, so expiring paths missing from it would be wrong
+                logger.log(WARNING, String.format("abandoning sync with %s", streamsPath), ex);
+                CloseHelper.quietClose(syncStream);
+                syncStream = null;
+                syncEntries = null;
+                syncSnapshot = null;
+            }
+        }
+        else
+        {
+            Path sourcePath = syncCursor == null ? first(sourcePaths) : sourcePaths.higher(syncCursor);
+            while (workCount < SYNC_SLICE_LENGTH && sourcePath != null)
+            {
+                syncCursor = sourcePath;
+                if (!syncSnapshot.contains(sourcePath))
+                {
+                    handleDeletePath(sourcePath);
+                }
+                sourcePath = sourcePaths.higher(syncCursor);
+                workCount++;
+            }
+
+            if (sourcePath == null)
+            {
+                syncSnapshot = null;
+                syncCursor = null;
+            }
+        }
+
+        return workCount;
+    }
+
+    private static Path first(
+        NavigableSet<Path> paths)
     {
-        sourcePaths.stream().filter(p -> !p.toFile().exists()).forEach(this::handleDeletePath);
-        stream(streamsPath.toFile().listFiles()).map(f -> f.toPath()).forEach(this::handleCreatePath);
+        return paths.isEmpty() ? null : paths.first();
     }
 }
@@ -53,7 +53,9 @@ import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.TearDown;
 import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
 import org.openjdk.jmh.infra.Control;
+import org.openjdk.jmh.profile.GCProfiler;
 import org.openjdk.jmh.runner.Runner;
 import org.openjdk.jmh.runner.RunnerException;
 import org.openjdk.jmh.runner.options.Options;
@@ -87,6 +89,7 @@ public class HttpServerBM
 
         try
         {
+            Files.createDirectories(configuration.directory());
             Files.walk(configuration.directory(), FOLLOW_LINKS)
                  .map(Path::toFile)
                  .forEach(File::delete);
@@ -116,11 +119,14 @@ public class HttpServerBM
 
     private long sourceInputId;
     private DataFW data;
+    private DataFW content;
 
+    private final MessageHandler sourceOutputEstReader = this::handleSourceOutputEst;
     private MessageHandler sourceOutputEstHandler;
 
     @Setup(Level.Trial)
-    public void reinit() throws Exception
+    public void reinit(
+        BenchmarkParams params) throws Exception
     {
         final Random random = new Random();
         final HttpController controller = reaktor.controller(HttpController.class);
@@ -129,7 +135,7 @@ public class HttpServerBM
         this.sourceInputRef = controller.route(INPUT, NEW, "source", 0L, "target", targetInputRef, emptyMap()).get();
 
         this.sourceInputStreams = controller.streams("source");
-        this.sourceOutputEstStreams = controller.streams("http", "target");
+        this.sourceOutputEstStreams = controller.streams("source", "target");
 
         this.sourceInputId = random.nextLong();
         this.sourceOutputEstHandler = this::processBegin;
@@ -159,6 +165,33 @@ public class HttpServerBM
                           .extension(e -> e.reset())
                           .build();
 
+        if (params.getBenchmark().endsWith(".content"))
+        {
+            String headers =
+                    "POST / HTTP/1.1\r\n" +
+                    "Host: localhost:8080\r\n" +
+                    "Content-Length:" + Integer.MAX_VALUE + "\r\n" +
+                    "\r\n";
+            byte[] headersArray = headers.getBytes(StandardCharsets.UTF_8);
+
+            DataFW request = dataRW.wrap(writeBuffer, 0, writeBuffer.capacity())
+                                   .streamId(sourceInputId)
+                                   .payload(p -> p.set(headersArray))
+                                   .extension(e -> e.reset())
+                                   .build();
+
+            this.sourceInputStreams.writeStreams(request.typeId(), request.buffer(), request.offset(), request.length());
+
+            final AtomicBuffer contentBuffer = new UnsafeBuffer(new byte[256]);
+            byte[] contentArray = "Hello, world".getBytes(StandardCharsets.UTF_8);
+
+            this.content = dataRW.wrap(contentBuffer, 0, contentBuffer.capacity())
+                                 .streamId(sourceInputId)
+                                 .payload(p -> p.set(contentArray))
+                                 .extension(e -> e.reset())
+                                 .build();
+        }
+
         this.throttleBuffer = new UnsafeBuffer(allocateDirect(SIZE_OF_LONG + SIZE_OF_INT));
     }
 
@@ -198,9 +231,41 @@ public class HttpServerBM
     @Group("throughput")
     @GroupThreads(1)
     public void reader(Control control) throws Exception
+    {
+        readStreams(control);
+    }
+
+    @Benchmark
+    @Group("content")
+    @GroupThreads(1)
+    public void contentWriter(Control control) throws Exception
+    {
+        while (!control.stopMeasurement &&
+               !sourceInputStreams.writeStreams(content.typeId(), content.buffer(), 0, content.limit()))
+        {
+            Thread.yield();
+        }
+
+        while (!control.stopMeasurement &&
+                sourceInputStreams.readThrottle((t, b, o, l) -> {}) == 0)
+        {
+            Thread.yield();
+        }
+    }
+
+    @Benchmark
+    @Group("content")
+    @GroupThreads(1)
+    public void contentReader(Control control) throws Exception
+    {
+        readStreams(control);
+    }
+
+    private void readStreams(
+        Control control)
     {
         while (!control.stopMeasurement &&
-               sourceOutputEstStreams.readStreams(this::handleSourceOutputEst) == 0)
+               sourceOutputEstStreams.readStreams(sourceOutputEstReader) == 0)
         {
             Thread.yield();
         }
@@ -258,6 +323,7 @@ public class HttpServerBM
     {
         Options opt = new OptionsBuilder()
                 .include(HttpServerBM.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
                 .forks(0)
                 .build();
 
@@ -0,0 +1,145 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.conductor;
+
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonMap;
+import static java.util.logging.Level.WARNING;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.reaktivity.nukleus.http.internal.types.control.Role.INPUT;
+import static org.reaktivity.nukleus.http.internal.types.control.Role.OUTPUT;
+import static org.reaktivity.nukleus.http.internal.types.control.State.ESTABLISHED;
+import static org.reaktivity.nukleus.http.internal.types.control.State.NONE;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.reaktivity.nukleus.http.internal.routable.RouteEntry;
+
+public class RouteSnapshotTest
+{
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final Logger logger = Logger.getLogger(RouteSnapshotTest.class.getName());
+    private final List<LogRecord> records = new ArrayList<>();
+    private final Handler handler = new Handler()
+    {
+        @Override
+        public void publish(
+            LogRecord record)
+        {
+            records.add(record);
+        }
+
+        @Override
+        public void flush()
+        {
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    };
+
+    private final List<RouteEntry> entries = Arrays.asList(
+        new RouteEntry(INPUT, NONE, "source", 2L, "target", 1L, singletonMap(":authority", "localhost:8080")),
+        new RouteEntry(OUTPUT, ESTABLISHED, "target", 0x8000000000000002L, "source", 0L, emptyMap()));
+
+    private Path path;
+
+    @Before
+    public void init()
+    {
+        path = folder.getRoot().toPath().resolve("routes");
+        logger.setUseParentHandlers(false);
+        logger.addHandler(handler);
+    }
+
+    @After
+    public void fini()
+    {
+        logger.removeHandler(handler);
+    }
+
+    @Test
+    public void shouldLoadStoredRoutesAfterRestart() throws Exception
+    {
+        store(entries);
+
+        assertRoutes(entries, new RouteSnapshot(path, 0L, logger).load());
+        assertTrue(records.isEmpty());
+    }
+
+    @Test
+    public void shouldIgnorePartialPendingSnapshot() throws Exception
+    {
+        store(entries);
+
+        final Path pendingPath = path.resolveSibling("routes.pending");
+        final byte[] stored = Files.readAllBytes(path);
+        Files.write(pendingPath, Arrays.copyOf(stored, stored.length / 2));
+
+        assertRoutes(entries, new RouteSnapshot(path, 0L, logger).load());
+        assertTrue(records.isEmpty());
+    }
+
+    @Test
+    public void shouldIgnoreCorruptSnapshot() throws Exception
+    {
+        store(entries);
+
+        final byte[] stored = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(stored, stored.length / 2));
+
+        assertTrue(new RouteSnapshot(path, 0L, logger).load().isEmpty());
+        assertEquals(1, records.size());
+        assertEquals(WARNING, records.get(0).getLevel());
+    }
+
+    private void store(
+        List<RouteEntry> routes) throws Exception
+    {
+        final RouteSnapshot snapshot = new RouteSnapshot(path, 0L, logger);
+        snapshot.store(routes);
+        snapshot.close();
+    }
+
+    private static void assertRoutes(
+        List<RouteEntry> expected,
+        List<RouteEntry> actual)
+    {
+        assertEquals(expected.size(), actual.size());
+
+        for (int i = 0; i < expected.size(); i++)
+        {
+            assertEquals(expected.get(i).toString(), actual.get(i).toString());
+        }
+    }
+}
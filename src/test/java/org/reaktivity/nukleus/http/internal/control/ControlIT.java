@@ -31,7 +31,8 @@ public class ControlIT
 {
     private final K3poRule k3po = new K3poRule()
         .addScriptRoot("route", "org/reaktivity/specification/nukleus/http/control/route")
-        .addScriptRoot("unroute", "org/reaktivity/specification/nukleus/http/control/unroute");
+        .addScriptRoot("unroute", "org/reaktivity/specification/nukleus/http/control/unroute")
+        .addScriptRoot("routes", "org/reaktivity/specification/nukleus/http/control/routes");
 
     private final TestRule timeout = new DisableOnDebug(new Timeout(5, SECONDS));
 
@@ -39,7 +40,7 @@ public class ControlIT
         .directory("target/nukleus-itests")
         .commandBufferCapacity(1024)
         .responseBufferCapacity(1024)
-        .counterValuesBufferCapacity(1024);
+        .counterValuesBufferCapacity(4096);
 
     @Rule
     public final TestRule chain = outerRule(k3po).around(timeout).around(nukleus);
@@ -157,4 +158,22 @@ public class ControlIT
     {
         k3po.finish();
     }
+
+    @Test
+    @Specification({
+        "${routes}/input/new/controller"
+    })
+    public void shouldRoutesInputNew() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${routes}/input/rejected/controller"
+    })
+    public void shouldRejectRoutesWhenUnrouteMatchesNothing() throws Exception
+    {
+        k3po.finish();
+    }
 }
@@ -16,15 +16,26 @@
 package org.reaktivity.nukleus.http.internal.control;
 
 import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 import static org.junit.rules.RuleChain.outerRule;
 import static org.reaktivity.nukleus.http.internal.types.control.Role.INPUT;
 import static org.reaktivity.nukleus.http.internal.types.control.Role.OUTPUT;
 import static org.reaktivity.nukleus.http.internal.types.control.State.ESTABLISHED;
 import static org.reaktivity.nukleus.http.internal.types.control.State.NEW;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.junit.Rule;
 import org.junit.Test;
@@ -34,13 +45,15 @@ import org.junit.rules.Timeout;
 import org.kaazing.k3po.junit.annotation.Specification;
 import org.kaazing.k3po.junit.rules.K3poRule;
 import org.reaktivity.nukleus.http.internal.HttpController;
+import org.reaktivity.nukleus.http.internal.HttpController.Routes;
 import org.reaktivity.reaktor.test.ControllerRule;
 
 public class ControllerIT
 {
     private final K3poRule k3po = new K3poRule()
         .addScriptRoot("route", "org/reaktivity/specification/nukleus/http/control/route")
-        .addScriptRoot("unroute", "org/reaktivity/specification/nukleus/http/control/unroute");
+        .addScriptRoot("unroute", "org/reaktivity/specification/nukleus/http/control/unroute")
+        .addScriptRoot("routes", "org/reaktivity/specification/nukleus/http/control/routes");
 
     private final TestRule timeout = new DisableOnDebug(new Timeout(5, SECONDS));
 
@@ -48,7 +61,7 @@ public class ControllerIT
         .directory("target/nukleus-itests")
         .commandBufferCapacity(1024)
         .responseBufferCapacity(1024)
-        .counterValuesBufferCapacity(1024);
+        .counterValuesBufferCapacity(4096);
 
     @Rule
     public final TestRule chain = outerRule(k3po).around(timeout).around(controller);
@@ -72,6 +85,48 @@ public class ControllerIT
         k3po.finish();
     }
 
+    @Test
+    @Specification({
+        "${route}/input/concurrent/nukleus"
+    })
+    public void shouldRouteInputNewFromConcurrentCallers() throws Exception
+    {
+        final HttpController http = controller.controller(HttpController.class);
+        final int callers = 4;
+        final CountDownLatch ready = new CountDownLatch(callers);
+        final ExecutorService executor = Executors.newFixedThreadPool(callers);
+        final List<CompletableFuture<Long>> promises = new ArrayList<>();
+
+        k3po.start();
+
+        try
+        {
+            for (int i = 0; i < callers; i++)
+            {
+                promises.add(CompletableFuture.supplyAsync(() ->
+                {
+                    ready.countDown();
+                    awaitQuietly(ready);
+                    return http.route(INPUT, NEW, "source", 0L, "target", 1L, null);
+                }, executor).thenCompose(promise -> promise));
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+
+        final Set<Long> sourceRefs = new HashSet<>();
+        for (CompletableFuture<Long> promise : promises)
+        {
+            sourceRefs.add(promise.get());
+        }
+
+        k3po.finish();
+
+        assertEquals(callers, sourceRefs.size());
+    }
+
     @Test
     @Specification({
         "${route}/output/new/nukleus"
@@ -216,4 +271,81 @@ public class ControllerIT
 
         k3po.finish();
     }
+
+    @Test
+    @Specification({
+        "${routes}/input/new/nukleus"
+    })
+    public void shouldRoutesInputNew() throws Exception
+    {
+        k3po.start();
+
+        controller.controller(HttpController.class)
+                  .routes(r -> r.route(INPUT, NEW, "source", 2L, "target", 1L, null)
+                                .route(INPUT, NEW, "source", 4L, "target", 1L, null))
+                  .get();
+
+        k3po.finish();
+    }
+
+    @Test(expected = ExecutionException.class)
+    @Specification({
+        "${routes}/input/rejected/nukleus"
+    })
+    public void shouldRejectRoutesInputNew() throws Exception
+    {
+        k3po.start();
+
+        try
+        {
+            controller.controller(HttpController.class)
+                      .routes(r -> r.route(INPUT, NEW, "source", 2L, "target", 1L, null)
+                                    .unroute(INPUT, NEW, "source", 4L, "target", 1L, null))
+                      .get();
+        }
+        finally
+        {
+            k3po.finish();
+        }
+    }
+
+    @Test
+    public void shouldRejectTooManyRouteEntries() throws Exception
+    {
+        try
+        {
+            controller.controller(HttpController.class)
+                      .routes(this::routeMany)
+                      .get();
+        }
+        catch (ExecutionException ex)
+        {
+            assertEquals("too many route entries", ex.getCause().getMessage());
+            return;
+        }
+
+        fail("expected too many route entries");
+    }
+
+    private static void awaitQuietly(
+        CountDownLatch latch)
+    {
+        try
+        {
+            latch.await();
+        }
+        catch (InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void routeMany(
+        Routes routes)
+    {
+        for (long sourceRef = 2L; sourceRef <= 64L; sourceRef += 2L)
+        {
+            routes.route(INPUT, NEW, "source", sourceRef, "target", 1L, null);
+        }
+    }
 }
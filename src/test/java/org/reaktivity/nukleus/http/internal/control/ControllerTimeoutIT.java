@@ -0,0 +1,122 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.control;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.rules.RuleChain.outerRule;
+import static org.reaktivity.nukleus.http.internal.Context.COMMAND_TIMEOUT_PROPERTY_NAME;
+import static org.reaktivity.nukleus.http.internal.types.control.Role.INPUT;
+import static org.reaktivity.nukleus.http.internal.types.control.State.NEW;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.DisableOnDebug;
+import org.junit.rules.TestRule;
+import org.junit.rules.Timeout;
+import org.kaazing.k3po.junit.annotation.Specification;
+import org.kaazing.k3po.junit.rules.K3poRule;
+import org.reaktivity.nukleus.http.internal.HttpController;
+import org.reaktivity.reaktor.test.ControllerRule;
+
+public class ControllerTimeoutIT
+{
+    private final K3poRule k3po = new K3poRule()
+        .addScriptRoot("route", "org/reaktivity/specification/nukleus/http/control/route");
+
+    private final TestRule timeout = new DisableOnDebug(new Timeout(5, SECONDS));
+
+    private final ControllerRule controller = new ControllerRule(HttpController.class)
+        .directory("target/nukleus-itests")
+        .commandBufferCapacity(1024)
+        .responseBufferCapacity(1024)
+        .counterValuesBufferCapacity(4096);
+
+    @Rule
+    public final TestRule chain = outerRule(k3po).around(timeout).around(controller);
+
+    @BeforeClass
+    public static void setCommandTimeout()
+    {
+        System.setProperty(COMMAND_TIMEOUT_PROPERTY_NAME, "500");
+    }
+
+    @AfterClass
+    public static void clearCommandTimeout()
+    {
+        System.clearProperty(COMMAND_TIMEOUT_PROPERTY_NAME);
+    }
+
+    @Test
+    @Specification({
+        "${route}/input/timeout/nukleus"
+    })
+    public void shouldFailRouteWhenNoReplyArrives() throws Exception
+    {
+        k3po.start();
+
+        CompletableFuture<Long> promise = controller.controller(HttpController.class)
+                  .route(INPUT, NEW, "source", 0L, "target", 1L, null);
+
+        assertTimedOut(promise);
+
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${route}/input/late/nukleus"
+    })
+    public void shouldIgnoreReplyAfterRouteTimedOut() throws Exception
+    {
+        final HttpController http = controller.controller(HttpController.class);
+
+        k3po.start();
+
+        CompletableFuture<Long> expired = http.route(INPUT, NEW, "source", 0L, "target", 1L, null);
+
+        assertTimedOut(expired);
+
+        k3po.notifyBarrier("EXPIRED");
+
+        http.route(INPUT, NEW, "source", 0L, "target", 1L, null).get();
+
+        k3po.finish();
+
+        assertTrue(expired.isCompletedExceptionally());
+    }
+
+    private static void assertTimedOut(
+        CompletableFuture<?> promise) throws Exception
+    {
+        try
+        {
+            promise.get();
+            fail("expected command timed out");
+        }
+        catch (ExecutionException ex)
+        {
+            assertEquals("command timed out", ex.getCause().getMessage());
+        }
+    }
+}
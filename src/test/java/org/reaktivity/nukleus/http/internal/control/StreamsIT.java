@@ -0,0 +1,137 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.control;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.rules.RuleChain.outerRule;
+import static org.reaktivity.nukleus.http.internal.Context.WORKER_COUNT_PROPERTY_NAME;
+import static org.reaktivity.nukleus.http.internal.types.control.Role.INPUT;
+import static org.reaktivity.nukleus.http.internal.types.control.State.NEW;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.DisableOnDebug;
+import org.junit.rules.TestRule;
+import org.junit.rules.Timeout;
+import org.reaktivity.nukleus.http.internal.HttpController;
+import org.reaktivity.nukleus.http.internal.HttpStreams;
+import org.reaktivity.nukleus.http.internal.routable.StreamEntry;
+import org.reaktivity.nukleus.http.internal.types.stream.BeginFW;
+import org.reaktivity.reaktor.test.ControllerRule;
+import org.reaktivity.reaktor.test.NukleusRule;
+
+public class StreamsIT
+{
+    private static final int WORKER_COUNT = 3;
+    // more than one router collection page per worker, and several STREAMS_PAGE responses in total
+    private static final int STREAMS_PER_PARTITION = 300;
+
+    private final TestRule timeout = new DisableOnDebug(new Timeout(10, SECONDS));
+
+    private final NukleusRule nukleus = new NukleusRule("http")
+        .directory("target/nukleus-itests")
+        .commandBufferCapacity(1024)
+        .responseBufferCapacity(65536)
+        .counterValuesBufferCapacity(4096);
+
+    private final ControllerRule controller = new ControllerRule(HttpController.class)
+        .directory("target/nukleus-itests")
+        .commandBufferCapacity(1024)
+        .responseBufferCapacity(65536)
+        .counterValuesBufferCapacity(4096);
+
+    @Rule
+    public final TestRule chain = outerRule(timeout).around(nukleus).around(controller);
+
+    private final BeginFW.Builder beginRW = new BeginFW.Builder();
+
+    @BeforeClass
+    public static void setWorkerCount()
+    {
+        System.setProperty(WORKER_COUNT_PROPERTY_NAME, Integer.toString(WORKER_COUNT));
+    }
+
+    @AfterClass
+    public static void clearWorkerCount()
+    {
+        System.clearProperty(WORKER_COUNT_PROPERTY_NAME);
+    }
+
+    @Test
+    public void shouldDescribeStreamsAcrossWorkers() throws Exception
+    {
+        final HttpController http = controller.controller(HttpController.class);
+
+        final Map<String, String> headers = new LinkedHashMap<>();
+        headers.put(":authority", "localhost:8080");
+
+        final long sourceRef = http.route(INPUT, NEW, "source", 0L, "target", 1L, headers).get();
+
+        // consecutive partition names hash to every shard, so each worker owns a partition
+        final Map<Long, String> ownersByStreamId = new HashMap<>();
+        final List<HttpStreams> partitions = new ArrayList<>();
+        final UnsafeBuffer writeBuffer = new UnsafeBuffer(new byte[256]);
+        long streamId = 0L;
+
+        for (int shard = 0; shard < WORKER_COUNT; shard++)
+        {
+            final String partitionName = String.format("source#%d", shard);
+            final HttpStreams streams = http.streams(partitionName);
+            partitions.add(streams);
+
+            for (int i = 0; i < STREAMS_PER_PARTITION; i++)
+            {
+                final BeginFW begin = beginRW.wrap(writeBuffer, 0, writeBuffer.capacity())
+                                             .streamId(++streamId)
+                                             .referenceId(sourceRef)
+                                             .correlationId(streamId)
+                                             .extension(e -> e.reset())
+                                             .build();
+
+                streams.writeStreams(begin.typeId(), begin.buffer(), begin.offset(), begin.length());
+                ownersByStreamId.put(streamId, partitionName);
+            }
+        }
+
+        List<StreamEntry> entries = http.describeStreams().get();
+        while (entries.size() < ownersByStreamId.size())
+        {
+            Thread.sleep(10L);
+            entries = http.describeStreams().get();
+        }
+
+        assertEquals(ownersByStreamId.size(), entries.size());
+
+        for (StreamEntry entry : entries)
+        {
+            assertEquals(StreamEntry.KIND_STREAM, entry.kind());
+            assertEquals(ownersByStreamId.get(entry.streamId()), entry.owner());
+            assertEquals("open", entry.state());
+        }
+
+        partitions.forEach(HttpStreams::close);
+    }
+}
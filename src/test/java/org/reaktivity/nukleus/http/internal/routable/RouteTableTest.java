@@ -0,0 +1,117 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.routable;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.reaktivity.nukleus.http.internal.routable.Route.sourceRefMatches;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.reaktivity.nukleus.http.internal.layouts.StreamsLayout;
+
+public class RouteTableTest
+{
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private StreamsLayout layout;
+    private Route route1;
+    private Route route2;
+
+    @Before
+    public void init()
+    {
+        layout = new StreamsLayout.Builder()
+            .path(folder.getRoot().toPath().resolve("target"))
+            .streamsCapacity(1024)
+            .throttleCapacity(1024)
+            .readonly(false)
+            .build();
+
+        final Target target = new Target("target", layout, null, null, 0, false, null, null, null);
+        route1 = new Route("source", 2L, target, 1L, emptyMap());
+        route2 = new Route("source", 4L, target, 3L, emptyMap());
+    }
+
+    @After
+    public void fini()
+    {
+        layout.close();
+    }
+
+    @Test
+    public void shouldKeepRetiredRoutesUntilLastUnpin()
+    {
+        final RouteTable routeTable = RouteTable.empty().withRoutes(asList(route1, route2));
+
+        assertFalse(routeTable.pin());
+        assertFalse(routeTable.pin());
+
+        final RouteTable newRouteTable = routeTable.withoutRoutes(2L, sourceRefMatches(2L));
+
+        assertEquals(routeTable.version() + 1, newRouteTable.version());
+        assertTrue(newRouteTable.routes(2L).isEmpty());
+        assertEquals(asList(route2), newRouteTable.routes(4L));
+
+        assertEquals(2, routeTable.retire());
+        assertTrue(routeTable.isRetired());
+        assertEquals(2, routeTable.streams());
+        assertEquals(asList(route1), routeTable.routes(2L));
+
+        assertTrue(routeTable.unpin());
+        assertEquals(1, routeTable.streams());
+
+        assertTrue(routeTable.pin());
+        assertEquals(2, routeTable.streams());
+
+        assertTrue(routeTable.unpin());
+        assertEquals(1, routeTable.streams());
+
+        assertTrue(routeTable.unpin());
+        assertEquals(0, routeTable.streams());
+        assertTrue(routeTable.isRetired());
+    }
+
+    @Test
+    public void shouldRetireUnpinnedTableWithoutStreams()
+    {
+        final RouteTable routeTable = RouteTable.empty().withRoutes(asList(route1));
+
+        assertFalse(routeTable.pin());
+        assertFalse(routeTable.unpin());
+
+        assertEquals(0, routeTable.retire());
+        assertTrue(routeTable.isRetired());
+        assertEquals(0, routeTable.streams());
+    }
+
+    @Test
+    public void shouldNotChangeVersionWhenNothingUnrouted()
+    {
+        final RouteTable routeTable = RouteTable.empty().withRoutes(asList(route1));
+
+        assertSame(routeTable, routeTable.withoutRoutes(4L, sourceRefMatches(4L)));
+        assertSame(routeTable, routeTable.withoutRoutes(2L, sourceRefMatches(4L)));
+    }
+}
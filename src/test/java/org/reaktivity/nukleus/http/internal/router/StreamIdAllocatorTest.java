@@ -0,0 +1,103 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.router;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.agrona.collections.LongHashSet;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.status.AtomicCounter;
+import org.agrona.concurrent.status.CountersManager;
+import org.junit.Test;
+
+public class StreamIdAllocatorTest
+{
+    private static final int BLOCK_SIZE = 16;
+
+    private final CountersManager counters = new CountersManager(
+        new UnsafeBuffer(new byte[8192]),
+        new UnsafeBuffer(new byte[4096]));
+
+    private final AtomicCounter streamsReserved = counters.newCounter("streams.reserved");
+    private final AtomicCounter streamsSourced = counters.newCounter("streams.sourced");
+
+    @Test
+    public void shouldAllocateMonotonicIdsAcrossBlocks()
+    {
+        final StreamIdAllocator allocator = new StreamIdAllocator(streamsReserved, streamsSourced, BLOCK_SIZE);
+
+        long lastId = -1L;
+        for (int i = 0; i < BLOCK_SIZE * 3 + 1; i++)
+        {
+            final long id = allocator.getAsLong();
+            assertTrue(id > lastId);
+            lastId = id;
+        }
+
+        assertEquals(BLOCK_SIZE * 4, streamsReserved.get());
+    }
+
+    @Test
+    public void shouldAllocateUniqueIdsAcrossAllocators()
+    {
+        final StreamIdAllocator[] allocators = new StreamIdAllocator[3];
+        for (int i = 0; i < allocators.length; i++)
+        {
+            allocators[i] = new StreamIdAllocator(streamsReserved, streamsSourced, BLOCK_SIZE);
+        }
+
+        final long[] lastIds = { -1L, -1L, -1L };
+        final LongHashSet ids = new LongHashSet(-1L);
+        final int count = BLOCK_SIZE * 5;
+
+        for (int i = 0; i < count; i++)
+        {
+            final int index = (i * 7) % allocators.length;
+            final long id = allocators[index].getAsLong();
+            assertTrue(ids.add(id));
+            assertTrue(id > lastIds[index]);
+            lastIds[index] = id;
+        }
+
+        assertEquals(count, ids.size());
+        assertTrue(streamsReserved.get() >= count);
+    }
+
+    @Test
+    public void shouldFlushSourcedCountOnce()
+    {
+        final StreamIdAllocator allocator = new StreamIdAllocator(streamsReserved, streamsSourced, BLOCK_SIZE);
+
+        for (int i = 0; i < BLOCK_SIZE + 3; i++)
+        {
+            allocator.getAsLong();
+        }
+
+        assertEquals(0L, streamsSourced.get());
+
+        allocator.flush();
+        assertEquals(BLOCK_SIZE + 3, streamsSourced.get());
+
+        allocator.flush();
+        assertEquals(BLOCK_SIZE + 3, streamsSourced.get());
+
+        allocator.getAsLong();
+        allocator.flush();
+        assertEquals(BLOCK_SIZE + 4, streamsSourced.get());
+        assertEquals(BLOCK_SIZE * 2, streamsReserved.get());
+    }
+}
@@ -39,7 +39,7 @@ public class ArchitectureIT
         .directory("target/nukleus-itests")
         .commandBufferCapacity(1024)
         .responseBufferCapacity(1024)
-        .counterValuesBufferCapacity(1024)
+        .counterValuesBufferCapacity(4096)
         .streams("http", "source")
         .streams("source", "http#source")
         .streams("target", "http#source")
@@ -0,0 +1,58 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class HistogramTest
+{
+    @Test
+    public void shouldPlaceValuesBelowBucketUpperBound()
+    {
+        for (int subBucketBits = 0; subBucketBits <= 4; subBucketBits++)
+        {
+            final String[] names = Histogram.bucketNames(subBucketBits);
+            assertEquals(Histogram.bucketCount(subBucketBits), names.length);
+            assertEquals("inf", names[names.length - 1]);
+
+            int lastIndex = 0;
+            for (long value = 0L; value < 1L << 32; value += 1L + (value >>> 6))
+            {
+                final int index = Histogram.index(value, subBucketBits);
+                assertTrue(index >= lastIndex);
+                assertTrue(index < names.length);
+                assertTrue(index == names.length - 1 || value < Long.parseLong(names[index]));
+                assertTrue(index == 0 || value >= Long.parseLong(names[index - 1]));
+                lastIndex = index;
+            }
+
+            assertEquals(names.length - 1, lastIndex);
+        }
+    }
+
+    @Test
+    public void shouldSplitEachPowerOfTwoIntoSubBuckets()
+    {
+        assertEquals(1, Histogram.index(1024L, 3));
+        assertEquals(1, Histogram.index(1151L, 3));
+        assertEquals(2, Histogram.index(1152L, 3));
+        assertEquals(8, Histogram.index(2047L, 3));
+        assertEquals(9, Histogram.index(2048L, 3));
+    }
+}
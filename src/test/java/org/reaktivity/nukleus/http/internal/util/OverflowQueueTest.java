@@ -0,0 +1,211 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.util;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.status.AtomicCounter;
+import org.agrona.concurrent.status.CountersManager;
+import org.junit.Test;
+import org.reaktivity.nukleus.http.internal.util.function.MessageWriter;
+
+public class OverflowQueueTest
+{
+    private static final int CAPACITY = 128;
+    private static final int MSG_TYPE_ID = 1;
+
+    private final CountersManager counters =
+            new CountersManager(new UnsafeBuffer(new byte[2048]), new UnsafeBuffer(new byte[1024]));
+    private final AtomicCounter framesSpilled = counters.newCounter("spilled");
+    private final AtomicCounter framesDropped = counters.newCounter("dropped");
+    private final OverflowQueue queue = new OverflowQueue(CAPACITY, 16, framesSpilled, framesDropped);
+
+    private final List<String> messages = new ArrayList<>();
+    private int writeLimit;
+
+    private final MessageWriter ring = (msgTypeId, buffer, index, length) ->
+    {
+        if (messages.size() == writeLimit)
+        {
+            return false;
+        }
+
+        messages.add(buffer.getStringWithoutLengthUtf8(index, length));
+        return true;
+    };
+
+    @Test
+    public void shouldWriteToRingWhenEmpty()
+    {
+        writeLimit = 1;
+
+        assertTrue(queue.write(ring, MSG_TYPE_ID, message('a', 24), 0, 24));
+
+        assertTrue(queue.isEmpty());
+        assertEquals(0L, framesSpilled.get());
+        assertEquals(1, messages.size());
+    }
+
+    @Test
+    public void shouldSpillInOrderOnceRingIsFull()
+    {
+        writeLimit = 1;
+
+        assertTrue(queue.write(ring, MSG_TYPE_ID, message('a', 24), 0, 24));
+        assertTrue(queue.write(ring, MSG_TYPE_ID, message('b', 24), 0, 24));
+
+        writeLimit = 2;
+
+        // never overtakes a spilled frame, even when the ring has room again
+        assertTrue(queue.write(ring, MSG_TYPE_ID, message('c', 24), 0, 24));
+
+        assertEquals(2L, framesSpilled.get());
+        assertEquals(1, messages.size());
+
+        writeLimit = 3;
+
+        assertEquals(2, queue.drainTo(ring));
+        assertTrue(queue.isEmpty());
+        assertEquals(text('b', 24), messages.get(1));
+        assertEquals(text('c', 24), messages.get(2));
+    }
+
+    @Test
+    public void shouldDrainUntilRingIsFull()
+    {
+        assertTrue(queue.offer(MSG_TYPE_ID, message('a', 24), 0, 24));
+        assertTrue(queue.offer(MSG_TYPE_ID, message('b', 24), 0, 24));
+
+        writeLimit = 1;
+
+        assertEquals(1, queue.drainTo(ring));
+        assertFalse(queue.isEmpty());
+
+        writeLimit = 2;
+
+        assertEquals(1, queue.drainTo(ring));
+        assertTrue(queue.isEmpty());
+        assertEquals(text('b', 24), messages.get(1));
+    }
+
+    @Test
+    public void shouldPadFrameThatWraps()
+    {
+        assertTrue(queue.offer(MSG_TYPE_ID, message('a', 40), 0, 40));
+        assertTrue(queue.offer(MSG_TYPE_ID, message('b', 40), 0, 40));
+
+        writeLimit = 1;
+        assertEquals(1, queue.drainTo(ring));
+
+        // 32 bytes remain before the end, so the 48 byte record is padded to the start
+        assertTrue(queue.offer(MSG_TYPE_ID, message('c', 40), 0, 40));
+        assertFalse(queue.offer(MSG_TYPE_ID, message('d', 8), 0, 8));
+
+        writeLimit = 3;
+
+        assertEquals(2, queue.drainTo(ring));
+        assertTrue(queue.isEmpty());
+        assertEquals(text('b', 40), messages.get(1));
+        assertEquals(text('c', 40), messages.get(2));
+    }
+
+    @Test
+    public void shouldCrossHighWaterMark()
+    {
+        assertTrue(queue.offer(MSG_TYPE_ID, message('a', 24), 0, 24));
+        assertTrue(queue.offer(MSG_TYPE_ID, message('b', 24), 0, 24));
+        assertFalse(queue.isAboveHighWaterMark());
+
+        assertTrue(queue.offer(MSG_TYPE_ID, message('c', 24), 0, 24));
+        assertTrue(queue.isAboveHighWaterMark());
+
+        writeLimit = 1;
+        assertEquals(1, queue.drainTo(ring));
+        assertFalse(queue.isAboveHighWaterMark());
+    }
+
+    @Test
+    public void shouldDropFrameWhenFull()
+    {
+        for (int i = 0; i < 4; i++)
+        {
+            assertTrue(queue.offer(MSG_TYPE_ID, message('a', 24), 0, 24));
+        }
+
+        assertFalse(queue.offer(MSG_TYPE_ID, message('b', 24), 0, 24));
+        assertFalse(queue.write(ring, MSG_TYPE_ID, message('b', 24), 0, 24));
+
+        assertEquals(4L, framesSpilled.get());
+        assertEquals(2L, framesDropped.get());
+    }
+
+    @Test
+    public void shouldHoldMaximumMessageLength()
+    {
+        final OverflowQueue queue = new OverflowQueue(CAPACITY, 1024, framesSpilled, framesDropped);
+
+        assertTrue(queue.offer(MSG_TYPE_ID, message('a', 24), 0, 24));
+
+        writeLimit = 1;
+        assertEquals(1, queue.drainTo(ring));
+
+        assertTrue(queue.offer(MSG_TYPE_ID, message('b', 1024), 0, 1024));
+        assertEquals(0L, framesDropped.get());
+    }
+
+    @Test
+    public void shouldSetHighWaterMarkFromClampedCapacity()
+    {
+        final OverflowQueue queue = new OverflowQueue(CAPACITY, 1024, framesSpilled, framesDropped);
+
+        // 1032 byte capacity, so 96 bytes stay below the 516 byte high water mark
+        for (int i = 0; i < 3; i++)
+        {
+            assertTrue(queue.offer(MSG_TYPE_ID, message('a', 24), 0, 24));
+        }
+        assertFalse(queue.isAboveHighWaterMark());
+
+        assertTrue(queue.offer(MSG_TYPE_ID, message('b', 512), 0, 512));
+        assertTrue(queue.isAboveHighWaterMark());
+    }
+
+    private static DirectBuffer message(
+        char fill,
+        int length)
+    {
+        return new UnsafeBuffer(text(fill, length).getBytes(US_ASCII));
+    }
+
+    private static String text(
+        char fill,
+        int length)
+    {
+        final StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++)
+        {
+            text.append((char) (fill + i % 16));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,88 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class PersistentLong2ObjectMapTest
+{
+    @Test
+    public void shouldKeepPreviousVersionUnchanged()
+    {
+        final PersistentLong2ObjectMap<String> empty = PersistentLong2ObjectMap.empty();
+        final PersistentLong2ObjectMap<String> one = empty.with(1L, "one");
+        final PersistentLong2ObjectMap<String> two = one.with(2L, "two");
+        final PersistentLong2ObjectMap<String> replaced = two.with(1L, "uno");
+        final PersistentLong2ObjectMap<String> removed = replaced.without(2L);
+
+        assertTrue(empty.isEmpty());
+        assertEquals("one", one.get(1L));
+        assertNull(one.get(2L));
+        assertEquals(2, two.size());
+        assertEquals("one", two.get(1L));
+        assertEquals(2, replaced.size());
+        assertEquals("uno", replaced.get(1L));
+        assertEquals("two", replaced.get(2L));
+        assertEquals(1, removed.size());
+        assertNull(removed.get(2L));
+        assertSame(removed, removed.without(2L));
+    }
+
+    @Test
+    public void shouldMatchHashMapAcrossRandomChanges()
+    {
+        final Random random = new Random(42L);
+        final Map<Long, Long> expected = new HashMap<>();
+        PersistentLong2ObjectMap<Long> map = PersistentLong2ObjectMap.empty();
+
+        for (int i = 0; i < 20000; i++)
+        {
+            // small key range forces replacements, removals and deep collisions of the low hash bits
+            final long key = random.nextInt(4096) * 0x100000000L - random.nextInt(2);
+            if (random.nextInt(3) == 0)
+            {
+                expected.remove(key);
+                map = map.without(key);
+            }
+            else
+            {
+                expected.put(key, (long) i);
+                map = map.with(key, (long) i);
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<Long, Long> entry : expected.entrySet())
+        {
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+
+        final Set<Long> values = new HashSet<>();
+        map.forEach(values::add);
+        assertEquals(new HashSet<>(expected.values()), values);
+    }
+}
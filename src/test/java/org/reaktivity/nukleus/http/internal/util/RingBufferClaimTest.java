@@ -0,0 +1,158 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.util;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.agrona.concurrent.ringbuffer.RingBufferDescriptor.TRAILER_LENGTH;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.MessageHandler;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.ringbuffer.OneToOneRingBuffer;
+import org.agrona.concurrent.ringbuffer.RingBuffer;
+import org.junit.Test;
+
+public class RingBufferClaimTest
+{
+    private static final int CAPACITY = 1024;
+    private static final int MSG_TYPE_ID = 1;
+
+    private final RingBuffer ring = new OneToOneRingBuffer(new UnsafeBuffer(new byte[CAPACITY + TRAILER_LENGTH]));
+    private final List<String> messages = new ArrayList<>();
+    private final MessageHandler handler = (msgTypeId, buffer, index, length) ->
+        messages.add(buffer.getStringWithoutLengthUtf8(index, length));
+
+    @Test
+    public void shouldWriteMessage()
+    {
+        final RingBufferClaim claim = new RingBufferClaim(ring, false);
+
+        assertTrue(claim.write(MSG_TYPE_ID, message('a', 32), 0, 32));
+
+        assertEquals(1, ring.read(handler));
+        assertEquals(text('a', 32), messages.get(0));
+    }
+
+    @Test
+    public void shouldPadClaimThatWraps()
+    {
+        final RingBufferClaim claim = new RingBufferClaim(ring, false);
+
+        for (int i = 0; i < 7; i++)
+        {
+            assertTrue(claim.write(MSG_TYPE_ID, message('a', 120), 0, 120));
+        }
+        assertEquals(7, ring.read(handler));
+
+        final int index = claim.tryClaim(120);
+        assertEquals(8, index);
+
+        claim.buffer().putBytes(index, message('b', 120), 0, 120);
+        claim.commit(MSG_TYPE_ID, 120);
+
+        assertEquals(7 * 128 + 128 + 128, ring.producerPosition());
+
+        // the first read only consumes the padding up to the end of the ring
+        assertEquals(0, ring.read(handler));
+        assertEquals(1, ring.read(handler));
+        assertEquals(text('b', 120), messages.get(7));
+    }
+
+    @Test
+    public void shouldNotClaimWhenFull()
+    {
+        final RingBufferClaim claim = new RingBufferClaim(ring, false);
+
+        int written = 0;
+        while (claim.write(MSG_TYPE_ID, message('a', 120), 0, 120))
+        {
+            written++;
+        }
+
+        assertEquals(-1, claim.tryClaim(120));
+        assertEquals(written, ring.read(handler));
+        assertTrue(claim.tryClaim(120) != -1);
+    }
+
+    @Test
+    public void shouldPublishBatchOnlyOnFlush()
+    {
+        final RingBufferClaim claim = new RingBufferClaim(ring, true);
+
+        assertTrue(claim.write(MSG_TYPE_ID, message('a', 32), 0, 32));
+        assertTrue(claim.write(MSG_TYPE_ID, message('b', 32), 0, 32));
+        assertTrue(claim.write(MSG_TYPE_ID, message('c', 32), 0, 32));
+
+        assertEquals(0, ring.read(handler));
+        assertEquals(0L, ring.producerPosition());
+
+        assertEquals(1, claim.flush());
+        assertEquals(0, claim.flush());
+
+        assertEquals(3, ring.read(handler));
+        assertEquals(text('c', 32), messages.get(2));
+    }
+
+    @Test
+    public void shouldPublishBatchThatWrapsOnFlush()
+    {
+        final RingBufferClaim claim = new RingBufferClaim(ring, true);
+
+        for (int i = 0; i < 7; i++)
+        {
+            assertTrue(claim.write(MSG_TYPE_ID, message('a', 120), 0, 120));
+        }
+        claim.flush();
+        assertEquals(7, ring.read(handler));
+
+        assertTrue(claim.write(MSG_TYPE_ID, message('b', 120), 0, 120));
+        assertTrue(claim.write(MSG_TYPE_ID, message('c', 120), 0, 120));
+
+        assertEquals(0, ring.read(handler));
+
+        claim.flush();
+
+        assertEquals(0, ring.read(handler));
+        assertEquals(2, ring.read(handler));
+        assertEquals(text('b', 120), messages.get(7));
+        assertEquals(text('c', 120), messages.get(8));
+        assertEquals(0, claim.flush());
+    }
+
+    private static DirectBuffer message(
+        char fill,
+        int length)
+    {
+        return new UnsafeBuffer(text(fill, length).getBytes(US_ASCII));
+    }
+
+    private static String text(
+        char fill,
+        int length)
+    {
+        final StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++)
+        {
+            text.append((char) (fill + i % 16));
+        }
+        return text.toString();
+    }
+}
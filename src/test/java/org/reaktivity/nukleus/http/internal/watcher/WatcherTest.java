@@ -0,0 +1,146 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.watcher;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.agrona.concurrent.SystemNanoClock;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.reaktivity.nukleus.http.internal.Context;
+
+public class WatcherTest
+{
+    private static final int SYNC_SLICE_LENGTH = 256;
+    private static final int PARTITION_COUNT = 600;
+    private static final int CHANGE_COUNT = 10;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final Set<Path> live = new TreeSet<>();
+    private final List<Path> readable = new ArrayList<>();
+    private final List<Path> expired = new ArrayList<>();
+
+    private Path streamsPath;
+    private Context context;
+    private Watcher watcher;
+
+    @Before
+    public void init() throws Exception
+    {
+        streamsPath = folder.getRoot().toPath().resolve("streams");
+        Files.createDirectories(streamsPath);
+
+        for (int i = 0; i < PARTITION_COUNT; i++)
+        {
+            Files.createFile(streamsPath.resolve(String.format("source#%d", i)));
+        }
+
+        context = new Context()
+            .watchService(FileSystems.getDefault().newWatchService())
+            .streamsPath(streamsPath)
+            .nanoClock(new SystemNanoClock());
+
+        watcher = new Watcher(context);
+        watcher.setHandlers(this::onReadable, this::onExpired);
+    }
+
+    @After
+    public void fini() throws Exception
+    {
+        watcher.close();
+        context.watchService().close();
+    }
+
+    @Test
+    public void shouldSyncPartitionsInSlicesWhileChanging() throws Exception
+    {
+        assertEquals(0, watcher.process());
+        assertEquals(SYNC_SLICE_LENGTH, watcher.process());
+        assertEquals(SYNC_SLICE_LENGTH, readable.size());
+
+        final List<Path> deleted = new ArrayList<>(readable.subList(0, CHANGE_COUNT));
+        for (Path sourcePath : deleted)
+        {
+            Files.delete(streamsPath.resolve(sourcePath));
+        }
+
+        for (int i = 0; i < CHANGE_COUNT; i++)
+        {
+            Files.createFile(streamsPath.resolve(String.format("source#new%d", i)));
+        }
+
+        final Set<Path> expected = list(streamsPath);
+        final long deadline = System.nanoTime() + SECONDS.toNanos(10L);
+        while (!(live.equals(expected) && expired.size() == CHANGE_COUNT) && System.nanoTime() < deadline)
+        {
+            if (watcher.process() == 0)
+            {
+                Thread.sleep(10L);
+            }
+        }
+
+        for (int i = 0; i < 4; i++)
+        {
+            watcher.process();
+        }
+
+        assertEquals(expected, live);
+        assertEquals(PARTITION_COUNT + CHANGE_COUNT, readable.size());
+        assertEquals(deleted, expired);
+    }
+
+    private void onReadable(
+        Path sourcePath)
+    {
+        assertTrue(live.add(sourcePath));
+        readable.add(sourcePath);
+    }
+
+    private void onExpired(
+        Path sourcePath)
+    {
+        assertTrue(live.remove(sourcePath));
+        expired.add(sourcePath);
+    }
+
+    private static Set<Path> list(
+        Path directory) throws IOException
+    {
+        final Set<Path> paths = new TreeSet<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory))
+        {
+            entries.forEach(p -> paths.add(p.getFileName()));
+        }
+        return paths;
+    }
+}